@@ -0,0 +1,31 @@
+package com.sschertz.holidaybenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the HolidayLibrary benchmarks with the GC profiler enabled, so every result includes
+ * the allocation rate ({@code gc.alloc.rate.norm} is bytes allocated per operation).
+ * <p>
+ * Pass a regular expression as the first argument to run only the matching benchmarks, for example
+ * {@code java -jar target/benchmarks.jar HolidayBenchmark}. For the full set of JMH options, run
+ * {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main -h} instead (and add {@code -prof gc}).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class);
+
+        if (args.length > 0) {
+            options.include(args[0]);
+        } else {
+            options.include("com.sschertz.holidaybenchmarks.*");
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.sschertz.holidaybenchmarks;
+
+import com.sschertz.holidays.DateUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link DateUtilities} helpers, comparing the {@code LocalDate} versions
+ * with the epoch day versions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateUtilitiesBenchmark {
+
+    private static final int FIRST_YEAR = 1900;
+    private static final int YEARS = 256;
+
+    private int year;
+
+    private int nextYear() {
+        year = (year + 1) & (YEARS - 1);
+        return FIRST_YEAR + year;
+    }
+
+    @Benchmark
+    public LocalDate getLastDayOfMonth() {
+        return DateUtilities.getLastDayOfMonth(nextYear(), Month.FEBRUARY);
+    }
+
+    @Benchmark
+    public LocalDate getSpecifiedDayInWeekOfMonth() {
+        return DateUtilities.getSpecifiedDayInWeekOfMonth(nextYear(), Month.NOVEMBER, 4, DayOfWeek.THURSDAY);
+    }
+
+    @Benchmark
+    public long getSpecifiedDayInWeekOfMonthAsEpochDay() {
+        return DateUtilities.getSpecifiedDayInWeekOfMonthAsEpochDay(nextYear(), Month.NOVEMBER, 4, DayOfWeek.THURSDAY);
+    }
+
+    @Benchmark
+    public LocalDate getLastSpecifiedDayInMonth() {
+        return DateUtilities.getLastSpecifiedDayInMonth(nextYear(), Month.MAY, DayOfWeek.MONDAY);
+    }
+
+    @Benchmark
+    public long getLastSpecifiedDayInMonthAsEpochDay() {
+        return DateUtilities.getLastSpecifiedDayInMonthAsEpochDay(nextYear(), Month.MAY, DayOfWeek.MONDAY);
+    }
+
+    @Benchmark
+    public LocalDate getLastFullWeekOfMonth() {
+        return DateUtilities.getLastFullWeekOfMonth(nextYear(), Month.APRIL);
+    }
+
+    @Benchmark
+    public long getLastFullWeekOfMonthAsEpochDay() {
+        return DateUtilities.getLastFullWeekOfMonthAsEpochDay(nextYear(), Month.APRIL);
+    }
+
+    @Benchmark
+    public LocalDate getFirstFullWeekOfMonth() {
+        return DateUtilities.getFirstFullWeekOfMonth(nextYear(), Month.SEPTEMBER);
+    }
+
+    @Benchmark
+    public long getFirstFullWeekOfMonthAsEpochDay() {
+        return DateUtilities.getFirstFullWeekOfMonthAsEpochDay(nextYear(), Month.SEPTEMBER);
+    }
+
+    @Benchmark
+    public LocalDate getSpecifiedDayInWeek() {
+        return DateUtilities.getSpecifiedDayInWeek(DateUtilities.getFirstFullWeekOfMonth(nextYear(), Month.MARCH),
+                DayOfWeek.WEDNESDAY);
+    }
+}
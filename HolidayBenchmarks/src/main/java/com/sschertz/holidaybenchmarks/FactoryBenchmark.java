@@ -0,0 +1,59 @@
+package com.sschertz.holidaybenchmarks;
+
+import com.sschertz.holidays.Holiday;
+import com.sschertz.holidays.HolidayFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for creating a {@link HolidayFactory} and looking up holidays in it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FactoryBenchmark {
+
+    @Param({"christmas", "thanksgiving day", "mardi gras"})
+    public String holidayName;
+
+    private HolidayFactory holidays;
+
+    @Setup
+    public void setUp() {
+        holidays = HolidayFactory.fromDefaults();
+    }
+
+    /**
+     * Startup cost: parsing us_holidays_default.json and compiling every rule.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HolidayFactory fromDefaults() {
+        return HolidayFactory.fromDefaults();
+    }
+
+    @Benchmark
+    public Holiday getHoliday() {
+        return holidays.getHoliday(holidayName);
+    }
+
+    @Benchmark
+    public List<Holiday> getSupportedHolidays() {
+        return holidays.getSupportedHolidays();
+    }
+}
@@ -0,0 +1,89 @@
+package com.sschertz.holidaybenchmarks;
+
+import com.sschertz.holidays.Holiday;
+import com.sschertz.holidays.HolidayFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for calculating the date of each type of {@link Holiday} rule. The {@code holidayName}
+ * parameter picks one holiday for each rule type (plus an observed date and a chained
+ * days-before rule). The year changes on every call so the JIT cannot fold the result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HolidayBenchmark {
+
+    private static final int FIRST_YEAR = 1900;
+    private static final int YEARS = 256;
+
+    @Param({
+            "christmas",                        // static_date
+            "christmas observed",               // static_date with forceWeekday
+            "thanksgiving day",                 // week_in_month
+            "election day us",                  // week_in_month with afterFirst
+            "memorial day",                     // last_in_month
+            "administrative professionals day", // last_full_week_of_month
+            "test first full week september",   // first_full_week_of_month (test set)
+            "easter",                           // easter
+            "good friday",                      // days_before_holiday
+            "mardi gras"                        // days_before_holiday of a days_before_holiday
+    })
+    public String holidayName;
+
+    private Holiday holiday;
+    private ZoneId zoneId;
+    private int year;
+
+    @Setup
+    public void setUp() {
+        HolidayFactory holidays = HolidayFactory.fromDefaults();
+        if (!holidays.isHolidayDefined(holidayName)) {
+            holidays = HolidayFactory.fromTest();
+        }
+        holiday = holidays.getHoliday(holidayName);
+        zoneId = ZoneId.of("America/Los_Angeles");
+    }
+
+    private int nextYear() {
+        year = (year + 1) & (YEARS - 1);
+        return FIRST_YEAR + year;
+    }
+
+    @Benchmark
+    public LocalDate getDate() {
+        return holiday.getDate(nextYear());
+    }
+
+    @Benchmark
+    public long getEpochDay() {
+        return holiday.getEpochDay(nextYear());
+    }
+
+    @Benchmark
+    public LocalDate getNextDate() {
+        return holiday.getDate(Holiday.TimeFrame.NEXT, zoneId);
+    }
+
+    @Benchmark
+    public LocalDate getLastDate() {
+        return holiday.getDate(Holiday.TimeFrame.LAST, zoneId);
+    }
+}
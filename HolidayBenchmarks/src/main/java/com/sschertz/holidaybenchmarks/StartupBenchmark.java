@@ -0,0 +1,70 @@
+package com.sschertz.holidaybenchmarks;
+
+import com.sschertz.holidays.HolidayFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of creating a {@link HolidayFactory} from the JSON configuration file
+ * with loading the same holidays from a binary snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private byte[] snapshot;
+    private byte[] snapshotWithYears;
+
+    @Setup
+    public void setUp() throws IOException {
+        HolidayFactory holidays = HolidayFactory.fromDefaults();
+        snapshot = write(holidays);
+
+        holidays.precomputeYears(1900, 2100);
+        snapshotWithYears = write(holidays);
+    }
+
+    private static byte[] write(HolidayFactory holidays) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        holidays.writeSnapshot(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Parsing us_holidays_default.json and compiling every rule.
+     */
+    @Benchmark
+    public HolidayFactory fromJson() {
+        return HolidayFactory.fromDefaults();
+    }
+
+    @Benchmark
+    public HolidayFactory fromSnapshot() {
+        return HolidayFactory.fromSnapshot(ByteBuffer.wrap(snapshot));
+    }
+
+    /**
+     * Loading a snapshot that also includes 201 years of precomputed dates.
+     */
+    @Benchmark
+    public HolidayFactory fromSnapshotWithYears() {
+        return HolidayFactory.fromSnapshot(ByteBuffer.wrap(snapshotWithYears));
+    }
+}
@@ -0,0 +1,272 @@
+package com.sschertz.holidays;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Business day arithmetic over a {@link HolidayCalendar} and a set of weekend days. A business day
+ * is any day that is neither a weekend day nor a holiday in the calendar. Use
+ * {@link HolidayCalendar#getBusinessCalendar()} or {@link HolidayCalendar#getBusinessCalendar(Set)}
+ * to get an object of this class.
+ * <p>
+ * For each year it is used with, the {@code BusinessCalendar} caches a mask of that year's business
+ * days along with running counts of business days. This means the cost of
+ * {@link #businessDaysBetween(LocalDate, LocalDate)} and {@link #addBusinessDays(LocalDate, int)}
+ * depends on the number of years spanned, not the number of days. Like the year indexes of a
+ * {@link HolidayCalendar}, up to {@value HolidayCalendar#MAX_CACHED_YEARS} years are cached; past that,
+ * the years farthest from the one being used are dropped.
+ * <p>
+ * {@code BusinessCalendar} objects are thread-safe.
+ */
+public final class BusinessCalendar {
+
+    private final HolidayCalendar holidays;
+    private final Set<DayOfWeek> weekend;
+    private final int weekendMask;
+    // Bounded like HolidayCalendar's year indexes, see getYear
+    private final Map<Integer, BusinessYear> years = new ConcurrentHashMap<>();
+    private volatile BusinessYear lastYear;
+
+    /**
+     * Package-private constructor. Use {@link HolidayCalendar#getBusinessCalendar(Set)} to get an
+     * object of this class.
+     *
+     * @param holidays the holidays that are not business days.
+     * @param weekend  the days of the week that are not business days.
+     */
+    BusinessCalendar(HolidayCalendar holidays, Set<DayOfWeek> weekend) {
+        if (weekend.size() == DayOfWeek.values().length) {
+            throw new IllegalArgumentException("At least one day of the week must be a business day");
+        }
+        this.holidays = holidays;
+        EnumSet<DayOfWeek> weekendDays = EnumSet.noneOf(DayOfWeek.class);
+        weekendDays.addAll(weekend);
+        this.weekend = Collections.unmodifiableSet(weekendDays);
+
+        int mask = 0;
+        for (DayOfWeek day : weekend) {
+            mask |= 1 << day.getValue();
+        }
+        weekendMask = mask;
+    }
+
+    /**
+     * Gets the {@link HolidayCalendar} whose holidays are not business days.
+     *
+     * @return the {@link HolidayCalendar} used by this {@code BusinessCalendar}.
+     */
+    public HolidayCalendar getHolidayCalendar() {
+        return holidays;
+    }
+
+    /**
+     * Gets the days of the week that are not business days.
+     *
+     * @return an unmodifiable {@code Set} of weekend days.
+     */
+    public Set<DayOfWeek> getWeekend() {
+        return weekend;
+    }
+
+    /**
+     * Tests whether the specified {@code date} is a business day (neither a weekend day nor a holiday).
+     *
+     * @param date the date to check.
+     * @return {@code true} if {@code date} is a business day; {@code false} otherwise.
+     */
+    public boolean isBusinessDay(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        return getYearContaining(epochDay).isBusinessDay(epochDay);
+    }
+
+    /**
+     * Returns the first business day after the specified {@code date}.
+     *
+     * @param date the date to start from.
+     * @return the next business day, not including {@code date} itself.
+     */
+    public LocalDate nextBusinessDay(LocalDate date) {
+        return addBusinessDays(date, 1);
+    }
+
+    /**
+     * Returns the last business day before the specified {@code date}.
+     *
+     * @param date the date to start from.
+     * @return the previous business day, not including {@code date} itself.
+     */
+    public LocalDate previousBusinessDay(LocalDate date) {
+        return addBusinessDays(date, -1);
+    }
+
+    /**
+     * Returns the date that is {@code businessDays} business days after (or, if negative, before)
+     * the specified {@code date}. For example, adding 1 business day to a Friday returns the
+     * following Monday, unless that Monday is a holiday.
+     * <p>
+     * If {@code businessDays} is zero, {@code date} is returned unchanged even if it is not a
+     * business day.
+     *
+     * @param date         the date to start from.
+     * @param businessDays the number of business days to add; may be negative.
+     * @return the resulting business day.
+     */
+    public LocalDate addBusinessDays(LocalDate date, int businessDays) {
+        if (businessDays == 0) {
+            return date;
+        }
+
+        long epochDay = date.toEpochDay();
+        BusinessYear year = getYearContaining(epochDay);
+
+        // index of the target business day, counted from the first business day of the year
+        long index;
+        if (businessDays > 0) {
+            index = year.countBefore(epochDay + 1) + businessDays - 1;
+            while (index >= year.total) {
+                index -= year.total;
+                year = getYear(year.year + 1);
+            }
+        } else {
+            index = year.countBefore(epochDay) + businessDays;
+            while (index < 0) {
+                year = getYear(year.year - 1);
+                index += year.total;
+            }
+        }
+
+        return LocalDate.ofEpochDay(year.select((int) index));
+    }
+
+    /**
+     * Returns the number of business days from {@code startInclusive} up to (but not including)
+     * {@code endExclusive}. If {@code endExclusive} is before {@code startInclusive}, the result
+     * is negative.
+     *
+     * @param startInclusive the first date to count.
+     * @param endExclusive   the date to stop counting at.
+     * @return the number of business days between the two dates.
+     */
+    public long businessDaysBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        long start = startInclusive.toEpochDay();
+        long end = endExclusive.toEpochDay();
+        if (end < start) {
+            return -businessDaysBetween(endExclusive, startInclusive);
+        }
+
+        BusinessYear startYear = getYearContaining(start);
+        if (startYear.contains(end)) {
+            return startYear.countBefore(end) - startYear.countBefore(start);
+        }
+
+        BusinessYear endYear = getYear(DateUtilities.getYear(end));
+        long count = startYear.total - startYear.countBefore(start);
+        for (int year = startYear.year + 1; year < endYear.year; year++) {
+            count += getYear(year).total;
+        }
+        return count + endYear.countBefore(end);
+    }
+
+    private BusinessYear getYearContaining(long epochDay) {
+        BusinessYear year = lastYear;
+        if (year == null || !year.contains(epochDay)) {
+            year = getYear(DateUtilities.getYear(epochDay));
+            lastYear = year;
+        }
+        return year;
+    }
+
+    private BusinessYear getYear(int year) {
+        BusinessYear businessYear = years.get(year);
+        if (businessYear == null) {
+            businessYear = years.computeIfAbsent(year,
+                    y -> new BusinessYear(y, holidays.getYear(y), weekendMask));
+            if (years.size() > HolidayCalendar.MAX_CACHED_YEARS) {
+                HolidayCalendar.evictFarthestFrom(years, year);
+            }
+        }
+        return businessYear;
+    }
+
+    /**
+     * Returns the number of years currently cached.
+     */
+    int getCachedYearCount() {
+        return years.size();
+    }
+
+    /**
+     * Mask of the business days in a single year, with the running count of business days
+     * before each word of the mask.
+     */
+    private static final class BusinessYear {
+
+        private final int year;
+        private final long firstEpochDay;
+        private final long nextFirstEpochDay;
+        private final long[] mask;
+        private final int[] countBeforeWord;
+        private final int total;
+
+        BusinessYear(int year, HolidayYear holidayYear, int weekendMask) {
+            this.year = year;
+            firstEpochDay = DateUtilities.toEpochDay(year, 1, 1);
+            nextFirstEpochDay = DateUtilities.toEpochDay(year + 1, 1, 1);
+
+            int length = (int) (nextFirstEpochDay - firstEpochDay);
+            mask = new long[(length + 63) / 64];
+            int dayOfWeek = DateUtilities.getDayOfWeekValue(firstEpochDay);
+            for (int day = 0; day < length; day++) {
+                if ((weekendMask & (1 << dayOfWeek)) == 0 && !holidayYear.isHoliday(firstEpochDay + day)) {
+                    mask[day >>> 6] |= 1L << day;
+                }
+                dayOfWeek = (dayOfWeek == 7) ? 1 : dayOfWeek + 1;
+            }
+
+            countBeforeWord = new int[mask.length + 1];
+            for (int word = 0; word < mask.length; word++) {
+                countBeforeWord[word + 1] = countBeforeWord[word] + Long.bitCount(mask[word]);
+            }
+            total = countBeforeWord[mask.length];
+        }
+
+        boolean contains(long epochDay) {
+            return epochDay >= firstEpochDay && epochDay < nextFirstEpochDay;
+        }
+
+        boolean isBusinessDay(long epochDay) {
+            int day = (int) (epochDay - firstEpochDay);
+            return (mask[day >>> 6] & (1L << day)) != 0;
+        }
+
+        /**
+         * Returns the number of business days in this year before {@code epochDay}. The epoch day
+         * may be anywhere from the first day of this year to the first day of the next year.
+         */
+        int countBefore(long epochDay) {
+            int day = (int) (epochDay - firstEpochDay);
+            int word = day >>> 6;
+            return countBeforeWord[word] + Long.bitCount(mask[word] & ((1L << day) - 1));
+        }
+
+        /**
+         * Returns the epoch day of the business day with the specified (zero-based) index in this year.
+         */
+        long select(int index) {
+            int word = 0;
+            while (countBeforeWord[word + 1] <= index) {
+                word++;
+            }
+            long bits = mask[word];
+            for (int i = countBeforeWord[word]; i < index; i++) {
+                bits &= bits - 1;
+            }
+            return firstEpochDay + (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.sschertz.holidays;
+
+/**
+ * Calculates the date of Easter Sunday for the Western (Gregorian) and Orthodox (Julian) churches.
+ * <p>
+ * Looking up a date is a single byte read: the dates for {@link #FIRST_YEAR} through {@link #LAST_YEAR}
+ * are calculated once, when this class is loaded, and stored as the number of days after March 22
+ * (Gregorian) of the same year. Western Easter falls between March 22 and April 25, and Orthodox Easter
+ * at most 28 days later than that in this range, so every offset fits in a byte. Years outside the range
+ * fall back to calculating the date.
+ */
+final class Computus {
+
+    /**
+     * The first year of the Gregorian calendar.
+     */
+    static final int FIRST_YEAR = 1583;
+    static final int LAST_YEAR = 4099;
+
+    private static final byte[] WESTERN = new byte[LAST_YEAR - FIRST_YEAR + 1];
+    private static final byte[] ORTHODOX = new byte[LAST_YEAR - FIRST_YEAR + 1];
+
+    // Julian day number of the epoch day 0 (January 1, 1970)
+    private static final int JULIAN_DAY_OF_EPOCH = 2440588;
+
+    static {
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            long march22 = DateUtilities.toEpochDay(year, 3, 22);
+            WESTERN[year - FIRST_YEAR] = (byte) (calculateWestern(year) - march22);
+            ORTHODOX[year - FIRST_YEAR] = (byte) (calculateOrthodox(year) - march22);
+        }
+    }
+
+    private Computus() {
+    }
+
+    /**
+     * Returns the epoch day of Western Easter Sunday in {@code year}.
+     */
+    static long western(int year) {
+        return (year >= FIRST_YEAR && year <= LAST_YEAR) ? lookup(WESTERN, year) : calculateWestern(year);
+    }
+
+    /**
+     * Returns the epoch day of Orthodox Easter Sunday in {@code year}, as a Gregorian date.
+     */
+    static long orthodox(int year) {
+        return (year >= FIRST_YEAR && year <= LAST_YEAR) ? lookup(ORTHODOX, year) : calculateOrthodox(year);
+    }
+
+    private static long lookup(byte[] table, int year) {
+        return DateUtilities.toEpochDay(year, 3, 22) + table[year - FIRST_YEAR];
+    }
+
+    /**
+     * Calculates Western Easter with the algorithm invented by the mathematician Carl Friedrich Gauss in 1800.
+     */
+    static long calculateWestern(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int g = (8 * b + 13) / 25;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int j = c / 4;
+        int k = c % 4;
+        int m = (a + 11 * h) / 319;
+        int r = (2 * e + 2 * j - k - h + m + 32) % 7;
+        int n = (h - m + r + 90) / 25;
+        int p = (h - m + r + n + 19) % 32;
+
+        // supposedly after all that, the month is n and the day is p.
+
+        return DateUtilities.toEpochDay(year, n, p);
+    }
+
+    /**
+     * Calculates Orthodox Easter with Meeus's Julian algorithm, then converts the Julian calendar date
+     * to an epoch day through its Julian day number.
+     */
+    static long calculateOrthodox(int year) {
+        int a = year % 4;
+        int b = year % 7;
+        int c = year % 19;
+        int d = (19 * c + 15) % 30;
+        int e = (2 * a + 4 * b - d + 34) % 7;
+        int month = (d + e + 114) / 31;
+        int day = (d + e + 114) % 31 + 1;
+
+        long julianDay = 367L * year - 7 * (year + 5001 + (month - 9) / 7) / 4 + 275 * month / 9 + day + 1729777;
+        return julianDay - JULIAN_DAY_OF_EPOCH;
+    }
+}
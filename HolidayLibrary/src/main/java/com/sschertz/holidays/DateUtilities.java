@@ -15,6 +15,16 @@ public class DateUtilities {
 
     private static int NUM_DAYS_IN_WEEK = 7;
 
+    /**
+     * Number of days from 0000-01-01 to 1970-01-01 (the epoch day used by {@code LocalDate}).
+     */
+    private static final long DAYS_0000_TO_1970 = 719528L;
+
+    /**
+     * Number of days in a 400 year cycle of the Gregorian calendar.
+     */
+    private static final long DAYS_PER_CYCLE = 146097L;
+
 
     /**
      * Returns a {@code LocalDate} for the first day of the specified {@code month} in the specified
@@ -165,5 +175,159 @@ public class DateUtilities {
     }
 
 
+    /*
+     * The methods below are primitive versions of the methods above. They return
+     * the epoch day (as used by LocalDate.toEpochDay()) instead of a LocalDate, and
+     * use integer arithmetic only, so they do not allocate any objects.
+     */
+
+    /**
+     * Tests whether {@code year} is a leap year in the ISO proleptic calendar.
+     *
+     * @param year the year
+     * @return {@code true} if {@code year} is a leap year.
+     */
+    public static boolean isLeapYear(long year){
+        return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+    }
+
+    /**
+     * Returns the epoch day (days since 1970-01-01) for the specified date. This is the same
+     * value returned by {@code LocalDate.of(year, month, dayOfMonth).toEpochDay()}, but does not
+     * validate the date.
+     *
+     * @param year the year
+     * @param month the month, from 1 (January) to 12 (December)
+     * @param dayOfMonth the day of the month, from 1
+     * @return the epoch day for the date.
+     */
+    public static long toEpochDay(int year, int month, int dayOfMonth){
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += ((367 * month - 362) / 12);
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Returns the year that contains the specified epoch day. This is the same value returned by
+     * {@code LocalDate.ofEpochDay(epochDay).getYear()}, without creating the {@code LocalDate}.
+     *
+     * @param epochDay the epoch day
+     * @return the year containing {@code epochDay}.
+     */
+    public static int getYear(long epochDay){
+        // Count from 0000-03-01 so the leap day is the last day of the "year"
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            // adjust negative years to positive for calculation
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            // fix estimate
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+
+        // January and February belong to the next year
+        int marchMonth0 = ((int) doyEst * 5 + 2) / 153;
+        return (int) (yearEst + marchMonth0 / 10);
+    }
+
+    /**
+     * Returns the ISO day-of-week value (1 for Monday to 7 for Sunday, the same as
+     * {@code DayOfWeek.getValue()}) of the specified epoch day.
+     *
+     * @param epochDay the epoch day
+     * @return the day-of-week value, from 1 (Monday) to 7 (Sunday).
+     */
+    public static int getDayOfWeekValue(long epochDay){
+        return (int) Math.floorMod(epochDay + 3, (long) NUM_DAYS_IN_WEEK) + 1;
+    }
+
+    /**
+     * Epoch day version of {@link #getSpecifiedDayInWeek(LocalDate, DayOfWeek)}. Returns the
+     * first {@code dayOfWeek} on or after {@code weekStartEpochDay}.
+     *
+     * @param weekStartEpochDay the epoch day that starts the week
+     * @param dayOfWeek the day of the week to find
+     * @return the epoch day of the specified {@code dayOfWeek} in the week.
+     */
+    public static long getSpecifiedDayInWeekAsEpochDay(long weekStartEpochDay, DayOfWeek dayOfWeek){
+        return weekStartEpochDay +
+                Math.floorMod(dayOfWeek.getValue() - getDayOfWeekValue(weekStartEpochDay), NUM_DAYS_IN_WEEK);
+    }
+
+    /**
+     * Epoch day version of {@link #getSpecifiedDayInWeekOfMonth(int, Month, int, DayOfWeek)}.
+     *
+     * @param year the year
+     * @param month the month
+     * @param week the week of the month, starting at 1
+     * @param dayOfWeek the day of the week
+     * @return the epoch day of the {@code dayOfWeek} in the specified {@code week} of the {@code month}.
+     */
+    public static long getSpecifiedDayInWeekOfMonthAsEpochDay(int year, Month month, int week, DayOfWeek dayOfWeek){
+        long firstDayOfMonth = toEpochDay(year, month.getValue(), 1);
+        return getSpecifiedDayInWeekAsEpochDay(firstDayOfMonth, dayOfWeek) + (week - 1) * NUM_DAYS_IN_WEEK;
+    }
+
+    /**
+     * Epoch day version of {@link #getLastSpecifiedDayInMonth(int, Month, DayOfWeek)}.
+     *
+     * @param year the year
+     * @param month the month
+     * @param dayOfWeek the day of the week
+     * @return the epoch day of the last {@code dayOfWeek} in the {@code month}.
+     */
+    public static long getLastSpecifiedDayInMonthAsEpochDay(int year, Month month, DayOfWeek dayOfWeek){
+        long lastDayOfMonth = toEpochDay(year, month.getValue(), month.length(isLeapYear(year)));
+        return lastDayOfMonth -
+                Math.floorMod(getDayOfWeekValue(lastDayOfMonth) - dayOfWeek.getValue(), NUM_DAYS_IN_WEEK);
+    }
+
+    /**
+     * Epoch day version of {@link #getFirstFullWeekOfMonth(int, Month)}. The returned epoch day
+     * is always a Sunday.
+     *
+     * @param year the year
+     * @param month the month
+     * @return the epoch day of the Sunday that starts the first full week of the {@code month}.
+     */
+    public static long getFirstFullWeekOfMonthAsEpochDay(int year, Month month){
+        return getSpecifiedDayInWeekOfMonthAsEpochDay(year, month, 1, DayOfWeek.SUNDAY);
+    }
+
+    /**
+     * Epoch day version of {@link #getLastFullWeekOfMonth(int, Month)}. The returned epoch day
+     * is always a Sunday.
+     *
+     * @param year the year
+     * @param month the month
+     * @return the epoch day of the Sunday that starts the last full week of the {@code month}.
+     */
+    public static long getLastFullWeekOfMonthAsEpochDay(int year, Month month){
+        long lastDayOfMonth = toEpochDay(year, month.getValue(), month.length(isLeapYear(year)));
+        long lastStartOfWeek = getLastSpecifiedDayInMonthAsEpochDay(year, month, DayOfWeek.SUNDAY);
 
+        // are there at least 6 more days? If not, go back one week.
+        return (lastStartOfWeek + 6 <= lastDayOfMonth) ? lastStartOfWeek : lastStartOfWeek - NUM_DAYS_IN_WEEK;
+    }
 }
@@ -2,7 +2,8 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
-import java.time.LocalDate;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Represents a {@link Holiday} for holidays that are calculated based on the date
@@ -26,22 +27,49 @@ class DaysBeforeHoliday extends Holiday {
     DaysBeforeHoliday(JsonObject holidayDefJson, Holiday otherHoliday) {
         super(holidayDefJson);
 
-        daysBefore = getRule().get("daysBefore").asInt();
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        daysBefore = rule.get("daysBefore").asInt();
         this.otherHoliday = otherHoliday;
 
 
-        if (getRule().get("specialDescription") != null){
-            this.specialDescription = getRule().get("specialDescription").asString();
+        if (rule.get("specialDescription") != null){
+            this.specialDescription = rule.get("specialDescription").asString();
         }
     }
 
+    DaysBeforeHoliday(String name, String displayName, Holiday otherHoliday, int daysBefore,
+                      String specialDescription) {
+        super(name, displayName, RuleType.DAYS_BEFORE_HOLIDAY);
+        this.otherHoliday = otherHoliday;
+        this.daysBefore = daysBefore;
+        this.specialDescription = specialDescription;
+    }
+
+    @Override
+    long calculateEpochDay(int year) {
+
+        // Get the date of the other holiday, and then subtract the specified days
+        long otherEpochDay = otherHoliday.findEpochDay(year);
+        return (otherEpochDay == NO_DATE) ? NO_DATE : otherEpochDay - daysBefore;
+    }
+
     @Override
-    public LocalDate getDate(int year) {
+    long calculateEpochDay(int year, long[] row, int rowOffset) {
 
-        // Get the date of the other holiday, and then add the specified days
-        LocalDate date = otherHoliday.getDate(year);
+        // The other holiday has already been evaluated for this year
+        long otherEpochDay = row[rowOffset + otherHoliday.getOrdinal()];
+        return (otherEpochDay == NO_DATE) ? NO_DATE : otherEpochDay - daysBefore;
+    }
 
-        return date.minusDays(daysBefore);
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        // The other holiday always comes first, so it is identified by its ordinal
+        out.writeInt(otherHoliday.getOrdinal());
+        out.writeInt(daysBefore);
+        out.writeBoolean(specialDescription != null);
+        if (specialDescription != null) {
+            HolidaySnapshot.writeString(out, specialDescription);
+        }
     }
 
     @Override
@@ -2,8 +2,9 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -29,18 +30,31 @@ class FirstFullWeekOfMonth extends Holiday {
 
         // Set the rule-specific fields for this subclass.
 
-        month = Month.valueOf(getRule().get("month").asString().toUpperCase());
-        dayOfWeek = DayOfWeek.valueOf(getRule().get("dayOfWeek").asString().toUpperCase());
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        month = Month.valueOf(rule.get("month").asString().toUpperCase());
+        dayOfWeek = DayOfWeek.valueOf(rule.get("dayOfWeek").asString().toUpperCase());
+    }
+
+    FirstFullWeekOfMonth(String name, String displayName, Month month, DayOfWeek dayOfWeek) {
+        super(name, displayName, RuleType.FIRST_FULL_WEEK_OF_MONTH);
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
     }
 
     @Override
-    public LocalDate getDate(int year) {
+    long calculateEpochDay(int year) {
 
-        LocalDate startOfFirstWeek = DateUtilities.getFirstFullWeekOfMonth(year, month);
-        return DateUtilities.getSpecifiedDayInWeek(startOfFirstWeek, dayOfWeek);
+        long startOfFirstWeek = DateUtilities.getFirstFullWeekOfMonthAsEpochDay(year, month);
+        return DateUtilities.getSpecifiedDayInWeekAsEpochDay(startOfFirstWeek, dayOfWeek);
 
     }
 
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        out.writeByte(month.getValue());
+        out.writeByte(dayOfWeek.getValue());
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
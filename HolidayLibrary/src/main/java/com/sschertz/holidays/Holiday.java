@@ -2,8 +2,16 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents the rules for calculating the date of a particular holiday. Use {@link HolidayFactory} to
@@ -14,9 +22,22 @@ import java.time.ZoneId;
 public abstract class Holiday implements Comparable {
 
     protected static int NUM_DAYS_IN_WEEK = 7;
+
+    /**
+     * Returned by {@link #calculateEpochDay(int)} (and stored in place of a date wherever dates are
+     * evaluated) when the holiday does not occur in a year, for instance February 29 in a year that is
+     * not a leap year. Every other value is a real epoch day.
+     */
+    static final long NO_DATE = Long.MIN_VALUE;
+
     private String name, displayName;
     private RuleType type;
-    private JsonObject rule;
+    private HolidayRegistry registry;
+    private int ordinal = -1;
+    private volatile HolidayYearTable yearTable;
+
+    // The last and next occurrence as of "today" in each time zone, see getDate(TimeFrame, ZoneId)
+    private final Map<ZoneId, Today> todayByZone = new ConcurrentHashMap<>();
 
     /**
      * Package-private constructor for a {@code Holiday} object. Creates a new {@code Holiday}
@@ -28,18 +49,31 @@ public abstract class Holiday implements Comparable {
      */
     Holiday(JsonObject holidayDefJson) {
         // Get all the data out of the JSON rule and put into our fields.
-        name = holidayDefJson.get("name").asString();
-        displayName = holidayDefJson.get("displayName").asString();
-        type = RuleType.valueOf(holidayDefJson.get("type").asString().toUpperCase());
-        rule = holidayDefJson.get("rule").asObject();
+        this(holidayDefJson.get("name").asString(),
+                holidayDefJson.get("displayName").asString(),
+                RuleType.valueOf(holidayDefJson.get("type").asString().toUpperCase()));
+    }
+
+    /**
+     * Package-private constructor for a {@code Holiday} object whose definition has already been
+     * parsed (for instance, read from a {@link HolidaySnapshot}).
+     *
+     * @param name        the name for the holiday.
+     * @param displayName the display name for the holiday.
+     * @param type        the {@link RuleType} for the holiday.
+     */
+    Holiday(String name, String displayName, RuleType type) {
+        this.name = name;
+        this.displayName = displayName;
+        this.type = type;
     }
 
 
     /**
      * Compares this {@code Holiday} with the specified {@code Holiday} object.
      *
-     * This currently uses display name to sort {@code Holiday} objects alphabetically. Future
-     * enhancment to add options for sorting by date.
+     * This uses display name to sort {@code Holiday} objects alphabetically. Use {@link #byDate(int)}
+     * to sort them by date instead.
      *
      * @param o the {@code Holiday} object to be compared.
      * @return a negative integer, zero, or a positive integer depending on whether the display
@@ -48,8 +82,6 @@ public abstract class Holiday implements Comparable {
      */
     @Override
     public int compareTo(Object o) {
-        // TODO: add options for sorting by either name or date
-
         String thisString = this.getDisplayName();
         Holiday thatHoliday = (Holiday) o;
         String thatString = thatHoliday.getDisplayName();
@@ -57,6 +89,24 @@ public abstract class Holiday implements Comparable {
         return thisString.compareToIgnoreCase(thatString);
     }
 
+    /**
+     * Returns a {@code Comparator} that sorts holidays by the date they occur in {@code year}, and
+     * holidays that occur on the same date alphabetically. Holidays that do not occur in {@code year}
+     * sort first.
+     * <p>
+     * To get all the holidays in a calendar sorted by date without sorting them yourself, use
+     * {@link HolidayCalendar#getHolidays(int)}, which is cached per year.
+     *
+     * @param year the year.
+     * @return a {@code Comparator} that sorts holidays by their date in {@code year}.
+     */
+    public static Comparator<Holiday> byDate(int year) {
+        return (first, second) -> {
+            int result = Long.compare(first.findEpochDay(year), second.findEpochDay(year));
+            return (result != 0) ? result : first.compareTo(second);
+        };
+    }
+
     /**
      * Gets the name for the holiday
      *
@@ -86,33 +136,163 @@ public abstract class Holiday implements Comparable {
         return type;
     }
 
-    /**
-     * Returns the {@code JsonObject} that defines the rule fields for this {@code Holiday}.
-     * @return
-     */
-    JsonObject getRule() {
-        return rule;
-    }
-
     /**
      * Returns the date the holiday occurs for the current year.
      *
      * @return a {@code LocalDate} specifying the date the holiday occurs in the current year.
      */
     public final LocalDate getDate() {
-        return getDate(LocalDate.now().getYear());
+        return getDate(LocalDate.now(getClock()).getYear());
     }
 
     /**
      * Returns the date the holiday occurs for the specified year.
+     *
+     * @param year The year
+     * @return a {@code LocalDate} with the date of the holidays in the specified year.
+     * @throws DateTimeException if the holiday does not occur in {@code year}.
+     */
+    public LocalDate getDate(int year) {
+        return LocalDate.ofEpochDay(getEpochDay(year));
+    }
+
+    /**
+     * Returns the date the holiday occurs for the specified year, as an epoch day (the number of
+     * days since 1970-01-01, as returned by {@code LocalDate.toEpochDay()}).
+     * <p>
+     * This is calculated with integer arithmetic only and does not allocate any objects, so it is
+     * the preferred method when evaluating large numbers of holidays or years. If the
+     * {@link HolidayFactory} this holiday came from has precomputed a range of years (see
+     * {@link HolidayFactory#precomputeYears(int, int)}), years in that range are read
+     * from the precomputed table.
+     *
+     * @param year The year
+     * @return the epoch day of the holiday in the specified year.
+     * @throws DateTimeException if the holiday does not occur in {@code year} (for instance, a holiday
+     *                           on February 29 in a year that is not a leap year).
+     */
+    public final long getEpochDay(int year) {
+        long epochDay = findEpochDay(year);
+        if (epochDay == NO_DATE) {
+            throw new DateTimeException("'" + displayName + "' does not occur in " + year);
+        }
+        return epochDay;
+    }
+
+    /**
+     * Returns the date the holiday occurs for the specified year, as an epoch day, or {@link #NO_DATE}
+     * if it does not occur that year. This is {@link #getEpochDay(int)} without the exception.
+     *
+     * @param year The year
+     * @return the epoch day of the holiday in the specified year, or {@link #NO_DATE}.
+     */
+    final long findEpochDay(int year) {
+        HolidayYearTable table = yearTable;
+        if (table != null && table.contains(year)) {
+            return table.getEpochDay(year, ordinal);
+        }
+
+        HolidayListener listener = HolidayFactory.getListener();
+        if (listener == HolidayListener.NONE) {
+            return calculateEpochDay(year);
+        }
+
+        long start = System.nanoTime();
+        long epochDay = calculateEpochDay(year);
+        listener.dateCalculated(this, year, System.nanoTime() - start);
+        return epochDay;
+    }
+
+    /**
+     * Calculates the date the holiday occurs for the specified year, as an epoch day.
      * <p>
      * Subclasses must implement this to provide the specific logic they need according
-     * to their own rules.
+     * to their own rules, using integer arithmetic only.
      *
      * @param year The year
-     * @return a {@code LocalDate} with the date of the holidays in the specified year.
+     * @return the epoch day of the holiday in the specified year, or {@link #NO_DATE} if it does
+     * not occur that year.
+     */
+    abstract long calculateEpochDay(int year);
+
+    /**
+     * Calculates the date the holiday occurs for the specified year, as part of evaluating every
+     * holiday in a {@link HolidayRegistry} for that year. {@code row} holds the dates already
+     * calculated for the year, indexed by ordinal starting at {@code rowOffset}; holidays are
+     * evaluated in ordinal order, so the date of any holiday this one depends on is already there.
+     * <p>
+     * Most rules do not depend on other holidays, so by default this just calls
+     * {@link #calculateEpochDay(int)}.
+     *
+     * @param year      The year
+     * @param row       the dates already calculated for {@code year}.
+     * @param rowOffset the index in {@code row} of the holiday with ordinal 0.
+     * @return the epoch day of the holiday in the specified year, or {@link #NO_DATE} if it does
+     * not occur that year.
+     */
+    long calculateEpochDay(int year, long[] row, int rowOffset) {
+        return calculateEpochDay(year);
+    }
+
+    /**
+     * Writes the rule-specific fields for this holiday to a {@link HolidaySnapshot}. Subclasses
+     * with fields must override this, and {@link HolidaySnapshot} must read the fields back in
+     * the same order.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the fields cannot be written.
+     */
+    void writeRule(DataOutput out) throws IOException {
+        // No rule-specific fields by default
+    }
+
+    /**
+     * Returns the rule for this holiday as an iCalendar recurrence rule (for instance
+     * {@code FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO}), or {@code null} if the rule cannot be written as one.
+     * {@link HolidayICalendarWriter} writes a single recurring event for holidays with a recurrence rule,
+     * and one event per year for the others, so the rule must produce exactly the same dates as
+     * {@link #calculateEpochDay(int)}.
+     *
+     * @return the recurrence rule, without an end date; {@code null} by default.
      */
-    public abstract LocalDate getDate(int year);
+    String getRecurrenceRule() {
+        return null;
+    }
+
+    /**
+     * Returns the {@code Clock} used to determine today's date (see {@link HolidayFactory#setClock(Clock)}).
+     */
+    Clock getClock() {
+        return registry.getClock();
+    }
+
+    /**
+     * Returns the {@link HolidayRegistry} this holiday was compiled into.
+     */
+    HolidayRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Returns the index of this holiday within the {@link HolidayRegistry} it was compiled into.
+     * A holiday's ordinal is always greater than the ordinal of any holiday it depends on.
+     */
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    void register(HolidayRegistry registry, int ordinal) {
+        this.registry = registry;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Sets the table of precomputed dates to use for {@link #getEpochDay(int)}. Pass {@code null}
+     * to always calculate dates from the rule.
+     */
+    void setYearTable(HolidayYearTable yearTable) {
+        this.yearTable = yearTable;
+    }
 
     /**
      * Returns either the {@link TimeFrame#NEXT} or {@link TimeFrame#LAST} occurrence of the holiday,
@@ -120,6 +300,10 @@ public abstract class Holiday implements Comparable {
      * <p>
      * If the holiday occurs today, both {@link TimeFrame#NEXT} and {@link TimeFrame#LAST}
      * return today's date.
+     * <p>
+     * Both dates are cached for each time zone until midnight in that zone, so repeated calls
+     * during the same day only read the clock and do a single map lookup. Today's date is
+     * determined by the factory's {@code Clock} (see {@link HolidayFactory#setClock(Clock)}).
      *
      * @param timeFrame a {@link TimeFrame} indicating whether to return the
      *                  {@link TimeFrame#NEXT} occurrence of
@@ -129,28 +313,77 @@ public abstract class Holiday implements Comparable {
      * the holiday, from today.
      */
     public final LocalDate getDate(TimeFrame timeFrame, ZoneId zoneId) {
-        // Need to get the holiday date first, as we don't know if it will
-        // fall before or after today
-        LocalDate today = LocalDate.now(zoneId);
-        int year = today.getYear();
-
-        LocalDate holiday = this.getDate(year);
-
-        if (timeFrame == Holiday.TimeFrame.NEXT) {
-            // return the holidays if it is on or after today, otherwise get a new one
-            if (holiday.isAfter(today) || holiday.isEqual(today)) {
-                return holiday;
-            } else {
-                return this.getDate(++year);
+        long now = getClock().millis();
+
+        Today today = todayByZone.get(zoneId);
+        if (today == null || !today.contains(now)) {
+            // First call for this zone, or the day has changed since the cached entry was made.
+            // Entries are immutable, so racing threads at worst calculate the same entry twice.
+            today = calculateToday(now, zoneId);
+            todayByZone.put(zoneId, today);
+        }
+
+        return (timeFrame == TimeFrame.NEXT) ? today.next : today.last;
+    }
+
+    private Today calculateToday(long now, ZoneId zoneId) {
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zoneId).toLocalDate();
+        long todayEpochDay = today.toEpochDay();
+
+        // Need to check the years on either side, as we don't know if the holiday will fall
+        // before or after today (and an observed holiday can fall in the neighbouring year)
+        long last = NO_DATE;
+        long next = Long.MAX_VALUE;
+        for (int year = today.getYear() - 1; year <= today.getYear() + 1; year++) {
+            long epochDay = findEpochDay(year);
+            if (epochDay == NO_DATE) {
+                continue;
+            }
+            if (epochDay <= todayEpochDay) {
+                last = Math.max(last, epochDay);
+            }
+            if (epochDay >= todayEpochDay) {
+                next = Math.min(next, epochDay);
             }
-        } else {
-            // we want holidays on or before today
-            if (holiday.isBefore(today) || holiday.isEqual(today)) {
-                return holiday;
-            } else {
-                return this.getDate(--year);
+        }
+
+        // A holiday that does not occur every year (February 29) can be several years away
+        for (int year = today.getYear() - 2; last == NO_DATE; year--) {
+            last = findEpochDay(year);
+        }
+        for (int year = today.getYear() + 2; next == Long.MAX_VALUE; year++) {
+            long epochDay = findEpochDay(year);
+            if (epochDay != NO_DATE) {
+                next = epochDay;
             }
         }
+
+        return new Today(today.atStartOfDay(zoneId).toInstant().toEpochMilli(),
+                today.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli(),
+                LocalDate.ofEpochDay(last), LocalDate.ofEpochDay(next));
+    }
+
+    /**
+     * The last and next occurrence of a holiday as of a particular day in a particular time zone.
+     */
+    private static final class Today {
+
+        // The instants (in epoch milliseconds) at which the day starts and ends in the time zone
+        private final long startMillis;
+        private final long endMillis;
+        private final LocalDate last;
+        private final LocalDate next;
+
+        Today(long startMillis, long endMillis, LocalDate last, LocalDate next) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.last = last;
+            this.next = next;
+        }
+
+        boolean contains(long millis) {
+            return millis >= startMillis && millis < endMillis;
+        }
     }
 
     /**
@@ -180,6 +413,8 @@ public abstract class Holiday implements Comparable {
 
     /**
      * Represents the type of rule needed to calculate the holidays.
+     * <p>
+     * {@link HolidaySnapshot} stores rule types by ordinal, so new types must be added at the end.
      */
     enum RuleType {
         /**
@@ -212,6 +447,10 @@ public abstract class Holiday implements Comparable {
          * Identifies a date that occurs on a particular day in a particular week of a month
          * (such as President's Day on the 3rd Monday of February).
          */
-        WEEK_IN_MONTH
+        WEEK_IN_MONTH,
+        /**
+         * Easter as celebrated by the Orthodox churches, which still use the Julian calendar to calculate it.
+         */
+        ORTHODOX_EASTER
     }
 }
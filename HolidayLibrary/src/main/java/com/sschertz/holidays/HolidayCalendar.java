@@ -0,0 +1,697 @@
+package com.sschertz.holidays;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A set of {@link Holiday} objects that can quickly answer whether a given date is a holiday.
+ * Use {@link HolidayFactory#getCalendar()} or {@link HolidayFactory#getCalendar(String...)} to get an
+ * object of this class.
+ * <p>
+ * The first time a date in a particular year is checked, the calendar evaluates every holiday for
+ * that year and caches a mask with one bit per day. Up to {@value #MAX_CACHED_YEARS} years are cached;
+ * past that, the years farthest from the one being checked are dropped. After that, {@link #isHoliday(long)} and
+ * {@link #isHoliday(LocalDate)} for any date in that year are a single word load and bit test.
+ * <p>
+ * Calendars can be combined (see {@link #combine(HolidayCalendar...)}), for instance to treat federal holidays,
+ * exchange closures and company closures as one calendar. A combined calendar builds a single index and mask per
+ * year for all of its holidays, so checking a date costs the same as for a single calendar.
+ * <p>
+ * {@code HolidayCalendar} objects are thread-safe.
+ */
+public final class HolidayCalendar {
+
+    // Largest number of year indexes a calendar keeps, so a long-running process that is asked
+    // about arbitrary years does not keep every one of them
+    static final int MAX_CACHED_YEARS = 256;
+
+    // Size of the table of years used by each batch classification; a power of two
+    private static final int BATCH_YEARS = 512;
+
+    private final Holiday[] holidays;
+    private final List<Holiday> holidayList;
+
+    // The index of each holiday in holidayList, used as its ID by getHolidayIds
+    private final Map<Holiday, Integer> holidayIds = new IdentityHashMap<>();
+    // Bounded by MAX_CACHED_YEARS, see getYear
+    private final Map<Integer, HolidayYear> years = new ConcurrentHashMap<>();
+
+    // The most recently used year. Most callers check many dates in the same year in a row,
+    // so this avoids the map lookup (and boxing the year) for the common case.
+    private volatile HolidayYear lastYear;
+
+    /**
+     * Package-private constructor. Use {@link HolidayFactory} to get an object of this class.
+     *
+     * @param holidays the holidays to include in the calendar.
+     */
+    HolidayCalendar(Holiday[] holidays) {
+        this.holidays = holidays.clone();
+
+        Holiday[] sorted = holidays.clone();
+        Arrays.sort(sorted);
+        holidayList = Collections.unmodifiableList(Arrays.asList(sorted));
+        for (int i = 0; i < sorted.length; i++) {
+            holidayIds.put(sorted[i], i);
+        }
+    }
+
+    /**
+     * Returns a new {@code HolidayCalendar} containing every holiday from all of the provided
+     * {@code calendars}. A holiday that appears in more than one of them is only included once.
+     * <p>
+     * The combined calendar has its own merged index for each year, so {@link #isHoliday(long)} is a
+     * single lookup no matter how many calendars were combined. Dates on which holidays from several
+     * calendars fall are only counted once by {@link #getHolidayDates(LocalDate, LocalDate)} and
+     * {@link #countHolidayDates(LocalDate, LocalDate)}.
+     *
+     * @param calendars the calendars to combine.
+     * @return a new {@code HolidayCalendar} with the holidays of all the {@code calendars}.
+     */
+    public static HolidayCalendar combine(HolidayCalendar... calendars) {
+        Set<Holiday> holidays = new LinkedHashSet<>();
+        for (HolidayCalendar calendar : calendars) {
+            holidays.addAll(Arrays.asList(calendar.holidays));
+        }
+        return new HolidayCalendar(holidays.toArray(new Holiday[holidays.size()]));
+    }
+
+    /**
+     * Gets a {@code List} of the {@link Holiday} objects included in this calendar, sorted alphabetically.
+     *
+     * @return an unmodifiable {@code List} of {@link Holiday} objects, sorted alphabetically.
+     */
+    public List<Holiday> getHolidays() {
+        return holidayList;
+    }
+
+    /**
+     * Gets a {@code List} of the {@link Holiday} objects included in this calendar, sorted by the date
+     * they occur in {@code year} (see {@link Holiday#byDate(int)}). Holidays that do not occur in
+     * {@code year} (February 29 in a year that is not a leap year) are left out. The list is built the
+     * first time a year is requested and cached with the rest of the index for that year.
+     *
+     * @param year the year.
+     * @return an unmodifiable {@code List} of {@link Holiday} objects, sorted by date.
+     */
+    public List<Holiday> getHolidays(int year) {
+        return getYear(year).getHolidaysInDateOrder();
+    }
+
+    /**
+     * Tests whether any holiday in this calendar falls on the specified {@code date}.
+     *
+     * @param date the date to check.
+     * @return {@code true} if {@code date} is a holiday; {@code false} otherwise.
+     */
+    public boolean isHoliday(LocalDate date) {
+        return isHoliday(date.toEpochDay());
+    }
+
+    /**
+     * Tests whether any holiday in this calendar falls on the specified epoch day (the number of
+     * days since 1970-01-01, as returned by {@code LocalDate.toEpochDay()}).
+     *
+     * @param epochDay the epoch day to check.
+     * @return {@code true} if {@code epochDay} is a holiday; {@code false} otherwise.
+     */
+    public boolean isHoliday(long epochDay) {
+        return getYearContaining(epochDay).isHoliday(epochDay);
+    }
+
+    /**
+     * Tests whether each of the specified epoch days is a holiday, storing the results in the
+     * corresponding elements of {@code result}. This is much faster than calling
+     * {@link #isHoliday(long)} in a loop for large arrays: the index for each year is looked up
+     * once per run of dates in that year rather than once per date.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the results in; must be the same length as {@code epochDays}.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void isHoliday(long[] epochDays, boolean[] result) {
+        checkLength(epochDays.length, result.length);
+        classify(epochDays, null, 0, epochDays.length, result, null);
+    }
+
+    /**
+     * Same as {@link #isHoliday(long[], boolean[])}, but splits the work between the threads of {@code pool}.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the results in; must be the same length as {@code epochDays}.
+     * @param pool      the {@code ForkJoinPool} to run in.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void isHoliday(long[] epochDays, boolean[] result, ForkJoinPool pool) {
+        checkLength(epochDays.length, result.length);
+        pool.invoke(new ClassifyTask(epochDays, null, 0, epochDays.length, result, null));
+    }
+
+    /**
+     * Same as {@link #isHoliday(long[], boolean[])}, for epoch days stored as {@code int}s.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the results in; must be the same length as {@code epochDays}.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void isHoliday(int[] epochDays, boolean[] result) {
+        checkLength(epochDays.length, result.length);
+        classify(null, epochDays, 0, epochDays.length, result, null);
+    }
+
+    /**
+     * Same as {@link #isHoliday(int[], boolean[])}, but splits the work between the threads of {@code pool}.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the results in; must be the same length as {@code epochDays}.
+     * @param pool      the {@code ForkJoinPool} to run in.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void isHoliday(int[] epochDays, boolean[] result, ForkJoinPool pool) {
+        checkLength(epochDays.length, result.length);
+        pool.invoke(new ClassifyTask(null, epochDays, 0, epochDays.length, result, null));
+    }
+
+    /**
+     * Finds the holiday that falls on each of the specified epoch days, storing its ID in the
+     * corresponding element of {@code result}: the index of the holiday in {@link #getHolidays()},
+     * or -1 if the date is not a holiday. If several holidays fall on the same date, the one that comes
+     * first alphabetically is used.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the holiday IDs in; must be the same length as {@code epochDays}.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void getHolidayIds(long[] epochDays, int[] result) {
+        checkLength(epochDays.length, result.length);
+        classify(epochDays, null, 0, epochDays.length, null, result);
+    }
+
+    /**
+     * Same as {@link #getHolidayIds(long[], int[])}, but splits the work between the threads of {@code pool}.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the holiday IDs in; must be the same length as {@code epochDays}.
+     * @param pool      the {@code ForkJoinPool} to run in.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void getHolidayIds(long[] epochDays, int[] result, ForkJoinPool pool) {
+        checkLength(epochDays.length, result.length);
+        pool.invoke(new ClassifyTask(epochDays, null, 0, epochDays.length, null, result));
+    }
+
+    /**
+     * Same as {@link #getHolidayIds(long[], int[])}, for epoch days stored as {@code int}s.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the holiday IDs in; must be the same length as {@code epochDays}.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void getHolidayIds(int[] epochDays, int[] result) {
+        checkLength(epochDays.length, result.length);
+        classify(null, epochDays, 0, epochDays.length, null, result);
+    }
+
+    /**
+     * Same as {@link #getHolidayIds(int[], int[])}, but splits the work between the threads of {@code pool}.
+     *
+     * @param epochDays the epoch days to check.
+     * @param result    the array to store the holiday IDs in; must be the same length as {@code epochDays}.
+     * @param pool      the {@code ForkJoinPool} to run in.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    public void getHolidayIds(int[] epochDays, int[] result, ForkJoinPool pool) {
+        checkLength(epochDays.length, result.length);
+        pool.invoke(new ClassifyTask(null, epochDays, 0, epochDays.length, null, result));
+    }
+
+    /**
+     * Returns all the holidays in this calendar that fall on the specified {@code date},
+     * sorted alphabetically.
+     *
+     * @param date the date to check.
+     * @return an unmodifiable {@code List} of the {@link Holiday} objects that occur on
+     * {@code date}; an empty {@code List} if there are none.
+     */
+    public List<Holiday> getHolidaysOn(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        return getYearContaining(epochDay).getHolidaysOn(epochDay);
+    }
+
+    /**
+     * Returns every occurrence of the holidays in this calendar from {@code startInclusive} to
+     * {@code endInclusive}, in date order (holidays on the same date are sorted alphabetically).
+     * <p>
+     * The {@code Stream} is generated lazily, one year at a time, so asking for a long span
+     * does not build a list of every occurrence first.
+     *
+     * @param startInclusive the first date to include.
+     * @param endInclusive   the last date to include.
+     * @return a sequential, date-ordered {@code Stream} of {@link HolidayOccurrence} objects.
+     */
+    public Stream<HolidayOccurrence> getOccurrences(LocalDate startInclusive, LocalDate endInclusive) {
+        Iterator<HolidayOccurrence> iterator = new OccurrenceIterator(startInclusive.toEpochDay(),
+                endInclusive.toEpochDay());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT |
+                        Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Returns every date from {@code startInclusive} to {@code endInclusive} on which at least one holiday in
+     * this calendar falls, in order. Unlike {@link #getOccurrences(LocalDate, LocalDate)}, each date appears
+     * only once, however many holidays fall on it.
+     * <p>
+     * The dates are found by scanning each year's mask, so the {@code Stream} is generated lazily and
+     * skips days without holidays a word (64 days) at a time.
+     *
+     * @param startInclusive the first date to include.
+     * @param endInclusive   the last date to include.
+     * @return a sequential, ordered {@code Stream} of distinct dates.
+     */
+    public Stream<LocalDate> getHolidayDates(LocalDate startInclusive, LocalDate endInclusive) {
+        Iterator<LocalDate> iterator = new DateIterator(startInclusive.toEpochDay(), endInclusive.toEpochDay());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT |
+                        Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Returns the number of dates from {@code startInclusive} to {@code endInclusive} on which at least one
+     * holiday in this calendar falls. Each date is counted once, however many holidays fall on it.
+     *
+     * @param startInclusive the first date to count.
+     * @param endInclusive   the last date to count.
+     * @return the number of holiday dates in the range; 0 if {@code endInclusive} is before {@code startInclusive}.
+     */
+    public long countHolidayDates(LocalDate startInclusive, LocalDate endInclusive) {
+        long start = startInclusive.toEpochDay();
+        long end = endInclusive.toEpochDay() + 1;
+        if (end <= start) {
+            return 0;
+        }
+
+        HolidayYear startYear = getYearContaining(start);
+        if (startYear.contains(end - 1)) {
+            return startYear.countHolidayDaysBefore(end) - startYear.countHolidayDaysBefore(start);
+        }
+
+        int endYear = DateUtilities.getYear(end - 1);
+        long count = startYear.countHolidayDaysBefore(DateUtilities.toEpochDay(startYear.getYear() + 1, 1, 1)) -
+                startYear.countHolidayDaysBefore(start);
+        for (int year = startYear.getYear() + 1; year < endYear; year++) {
+            count += getYear(year).countHolidayDaysBefore(DateUtilities.toEpochDay(year + 1, 1, 1));
+        }
+        return count + getYear(endYear).countHolidayDaysBefore(end);
+    }
+
+    /**
+     * Returns the next {@code count} occurrences of the holidays in this calendar on or after
+     * {@code date}, in date order (holidays on the same date are sorted alphabetically).
+     * <p>
+     * This merges one cursor per holiday, each stepping through that holiday's dates one year at a time,
+     * so only the dates actually returned (plus one per holiday) are ever calculated.
+     *
+     * @param date  the date to start from.
+     * @param count the number of occurrences to return.
+     * @return an unmodifiable {@code List} of {@code count} {@link HolidayOccurrence} objects; an empty
+     * {@code List} if this calendar has no holidays.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getNextOccurrences(LocalDate date, int count) {
+        return merge(date.toEpochDay(), count, 1);
+    }
+
+    /**
+     * Returns the last {@code count} occurrences of the holidays in this calendar on or before
+     * {@code date}, most recent first. This is the reverse of the date order used by
+     * {@link #getNextOccurrences(LocalDate, int)}.
+     *
+     * @param date  the date to start from.
+     * @param count the number of occurrences to return.
+     * @return an unmodifiable {@code List} of {@code count} {@link HolidayOccurrence} objects; an empty
+     * {@code List} if this calendar has no holidays.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getPreviousOccurrences(LocalDate date, int count) {
+        return merge(date.toEpochDay(), count, -1);
+    }
+
+    /**
+     * Merges the occurrences of every holiday, starting at {@code epochDay} and moving forwards
+     * ({@code direction} 1) or backwards ({@code direction} -1) in time.
+     */
+    private List<HolidayOccurrence> merge(long epochDay, int count, int direction) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (count == 0 || holidays.length == 0) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(holidays.length);
+        int year = DateUtilities.getYear(epochDay);
+        for (Holiday holiday : holidays) {
+            queue.add(new Cursor(holiday, year, epochDay, direction));
+        }
+
+        List<HolidayOccurrence> occurrences = new ArrayList<>(count);
+        while (occurrences.size() < count) {
+            Cursor cursor = queue.poll();
+            occurrences.add(new HolidayOccurrence(cursor.holiday, cursor.epochDay));
+            cursor.advance();
+            queue.add(cursor);
+        }
+        return Collections.unmodifiableList(occurrences);
+    }
+
+    /**
+     * Returns a {@link BusinessCalendar} that treats Saturday, Sunday, and every holiday in this
+     * calendar as non-business days.
+     *
+     * @return a new {@link BusinessCalendar}.
+     */
+    public BusinessCalendar getBusinessCalendar() {
+        return getBusinessCalendar(EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+    }
+
+    /**
+     * Returns a {@link BusinessCalendar} that treats the specified {@code weekend} days and every
+     * holiday in this calendar as non-business days.
+     *
+     * @param weekend the days of the week that are not business days.
+     * @return a new {@link BusinessCalendar}.
+     * @throws IllegalArgumentException if {@code weekend} contains every day of the week.
+     */
+    public BusinessCalendar getBusinessCalendar(Set<DayOfWeek> weekend) {
+        return new BusinessCalendar(this, weekend);
+    }
+
+    private static void checkLength(int length, int resultLength) {
+        if (resultLength != length) {
+            throw new IllegalArgumentException("result has " + resultLength + " elements, but there are " +
+                    length + " epoch days");
+        }
+    }
+
+    /**
+     * Classifies the epoch days from {@code from} to {@code to} (exclusive) in either {@code longDays} or
+     * {@code intDays}, storing either a mask in {@code mask} or holiday IDs in {@code ids}.
+     * <p>
+     * Batches usually hold runs of dates from the same few years, in any order. The index for the year
+     * of the previous date is checked first, then a small table of the years used so far in this batch,
+     * so the shared year cache (a map keyed by a boxed year) is only consulted the first time a year
+     * turns up.
+     */
+    private void classify(long[] longDays, int[] intDays, int from, int to, boolean[] mask, int[] ids) {
+        HolidayYear[] batchYears = new HolidayYear[BATCH_YEARS];
+        HolidayYear holidayYear = null;
+        for (int i = from; i < to; i++) {
+            long epochDay = (longDays != null) ? longDays[i] : intDays[i];
+            if (holidayYear == null || !holidayYear.contains(epochDay)) {
+                int year = DateUtilities.getYear(epochDay);
+                int slot = year & (BATCH_YEARS - 1);
+                holidayYear = batchYears[slot];
+                if (holidayYear == null || holidayYear.getYear() != year) {
+                    holidayYear = getYear(year);
+                    batchYears[slot] = holidayYear;
+                }
+            }
+
+            boolean holiday = holidayYear.isHoliday(epochDay);
+            if (mask != null) {
+                mask[i] = holiday;
+            } else {
+                ids[i] = holiday ? holidayIds.get(holidayYear.getHolidaysOn(epochDay).get(0)) : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the index for the year containing {@code epochDay}.
+     */
+    HolidayYear getYearContaining(long epochDay) {
+        HolidayYear holidayYear = lastYear;
+        if (holidayYear == null || !holidayYear.contains(epochDay)) {
+            holidayYear = getYear(DateUtilities.getYear(epochDay));
+            lastYear = holidayYear;
+        }
+        return holidayYear;
+    }
+
+    /**
+     * Returns the index for {@code year}, building and caching it on first use. Once more than
+     * {@link #MAX_CACHED_YEARS} years are cached, the years farthest from {@code year} are dropped;
+     * they are rebuilt if they are used again.
+     */
+    HolidayYear getYear(int year) {
+        HolidayYear holidayYear = years.get(year);
+        if (holidayYear == null) {
+            holidayYear = years.computeIfAbsent(year, this::buildYear);
+            if (years.size() > MAX_CACHED_YEARS) {
+                evictFarthestFrom(years, year);
+            }
+        }
+        return holidayYear;
+    }
+
+    private HolidayYear buildYear(int year) {
+        HolidayListener listener = HolidayFactory.getListener();
+        if (listener == HolidayListener.NONE) {
+            return HolidayYear.build(holidays, year);
+        }
+
+        long start = System.nanoTime();
+        HolidayYear holidayYear = HolidayYear.build(holidays, year);
+        listener.yearIndexBuilt(year, System.nanoTime() - start);
+        return holidayYear;
+    }
+
+    /**
+     * Removes the years farthest from {@code year} from a per-year cache until it holds no more than
+     * {@link #MAX_CACHED_YEARS} years.
+     */
+    static void evictFarthestFrom(Map<Integer, ?> years, int year) {
+        while (years.size() > MAX_CACHED_YEARS) {
+            int farthest = year;
+            for (Integer cached : years.keySet()) {
+                if (Math.abs((long) cached - year) > Math.abs((long) farthest - year)) {
+                    farthest = cached;
+                }
+            }
+            if (farthest == year) {
+                return;
+            }
+            years.remove(farthest);
+        }
+    }
+
+    /**
+     * Returns the number of years whose index is currently cached.
+     */
+    int getCachedYearCount() {
+        return years.size();
+    }
+
+    /**
+     * Classifies a range of a batch, splitting it in half until it is small enough to classify directly.
+     */
+    private final class ClassifyTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int DAYS_PER_TASK = 1 << 14;
+
+        private final long[] longDays;
+        private final int[] intDays;
+        private final int from;
+        private final int to;
+        private final boolean[] mask;
+        private final int[] ids;
+
+        ClassifyTask(long[] longDays, int[] intDays, int from, int to, boolean[] mask, int[] ids) {
+            this.longDays = longDays;
+            this.intDays = intDays;
+            this.from = from;
+            this.to = to;
+            this.mask = mask;
+            this.ids = ids;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= DAYS_PER_TASK) {
+                classify(longDays, intDays, from, to, mask, ids);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ClassifyTask(longDays, intDays, from, middle, mask, ids),
+                        new ClassifyTask(longDays, intDays, middle, to, mask, ids));
+            }
+        }
+    }
+
+    /**
+     * Steps through the dates of a single holiday, one year at a time, in one direction. Cursors
+     * sort by their current date in that direction, and then by holiday.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final Holiday holiday;
+        private final int direction;
+        private int year;
+        private long epochDay;
+
+        /**
+         * Creates a cursor at the first date of {@code holiday} on or after (or, going backwards,
+         * on or before) {@code startEpochDay}, which falls in {@code startYear}.
+         */
+        Cursor(Holiday holiday, int startYear, long startEpochDay, int direction) {
+            this.holiday = holiday;
+            this.direction = direction;
+
+            // An observed holiday can fall in the calendar year before or after the year it
+            // belongs to, so start one year further back
+            year = startYear - 2 * direction;
+            advance();
+            while (Long.compare(epochDay, startEpochDay) == -direction) {
+                advance();
+            }
+        }
+
+        /**
+         * Moves to the next year (in this cursor's direction) that the holiday occurs in.
+         */
+        void advance() {
+            do {
+                year += direction;
+                epochDay = holiday.findEpochDay(year);
+            } while (epochDay == Holiday.NO_DATE);
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            int result = Long.compare(epochDay, o.epochDay);
+            if (result == 0) {
+                result = holiday.compareTo(o.holiday);
+            }
+            return result * direction;
+        }
+    }
+
+    /**
+     * Iterates over the distinct holiday dates between two epoch days, using each year's mask.
+     */
+    private final class DateIterator implements Iterator<LocalDate> {
+
+        private final long endEpochDay;
+        private HolidayYear year;
+        private long next;
+
+        DateIterator(long startEpochDay, long endEpochDay) {
+            this.endEpochDay = endEpochDay;
+            if (startEpochDay <= endEpochDay) {
+                year = getYear(DateUtilities.getYear(startEpochDay));
+                next = year.nextHolidayDay(startEpochDay);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (year == null) {
+                return false;
+            }
+            while (next == HolidayYear.NO_MORE_HOLIDAYS) {
+                if (year.getYear() >= DateUtilities.getYear(endEpochDay)) {
+                    year = null;
+                    return false;
+                }
+                year = getYear(year.getYear() + 1);
+                next = year.nextHolidayDay(DateUtilities.toEpochDay(year.getYear(), 1, 1));
+            }
+            if (next > endEpochDay) {
+                year = null;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public LocalDate next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDate date = LocalDate.ofEpochDay(next);
+            next = (year.contains(next + 1)) ? year.nextHolidayDay(next + 1) : HolidayYear.NO_MORE_HOLIDAYS;
+            return date;
+        }
+    }
+
+    /**
+     * Iterates over the occurrences between two epoch days, moving to the next year's index
+     * only when the current one is used up.
+     */
+    private final class OccurrenceIterator implements Iterator<HolidayOccurrence> {
+
+        private final long endEpochDay;
+        private HolidayYear year;
+        private int index;
+
+        OccurrenceIterator(long startEpochDay, long endEpochDay) {
+            this.endEpochDay = endEpochDay;
+            if (startEpochDay <= endEpochDay) {
+                year = getYear(DateUtilities.getYear(startEpochDay));
+                index = year.indexOnOrAfter(startEpochDay);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (year == null) {
+                return false;
+            }
+            while (index == year.size()) {
+                if (year.getYear() >= DateUtilities.getYear(endEpochDay)) {
+                    year = null;
+                    return false;
+                }
+                year = getYear(year.getYear() + 1);
+                index = 0;
+            }
+            if (year.getEpochDayByDate(index) > endEpochDay) {
+                year = null;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public HolidayOccurrence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HolidayOccurrence occurrence = new HolidayOccurrence(year.getHolidayByDate(index),
+                    year.getEpochDayByDate(index));
+            index++;
+            return occurrence;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a holiday configuration file one holiday at a time, compiling each holiday as soon as its
+ * definition has been read. Only the definition currently being read is held as a {@code JsonObject},
+ * so the memory used while loading is proportional to the compiled holidays rather than the whole
+ * JSON document. This matters for generated files with tens of thousands of holidays.
+ * <p>
+ * A holiday that depends on another holiday that has not been read yet (see {@link DaysBeforeHoliday})
+ * is kept until the end of the file and then compiled in dependency order. Every other holiday is
+ * compiled immediately.
+ * <p>
+ * This is a small pull parser: minimal-json can only parse a whole document at once, so the reader
+ * walks the top level of the document itself, reading the configuration's string properties and
+ * building a separate {@code JsonObject} for each holiday definition. Other properties are skipped.
+ */
+final class HolidayConfigReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    // Reused for every string and number read
+    private final StringBuilder text = new StringBuilder();
+
+    private String name, version, lastUpdated, locale;
+    private HolidayRegistry registry;
+
+    HolidayConfigReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads and compiles the whole configuration.
+     *
+     * @throws IOException              if the configuration cannot be read.
+     * @throws IllegalArgumentException if the configuration is not valid JSON, does not define any
+     *                                  holidays, or contains an invalid holiday definition.
+     */
+    void read() throws IOException {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                switch (key) {
+                    case "name":
+                        name = readString();
+                        break;
+                    case "version":
+                        version = readString();
+                        break;
+                    case "lastUpdated":
+                        lastUpdated = readString();
+                        break;
+                    case "locale":
+                        locale = readString();
+                        break;
+                    case "supportedHolidays":
+                        registry = new HolidayRegistry(readHolidays());
+                        break;
+                    default:
+                        readValue();
+                }
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+        }
+
+        // Like Json.parse, reject anything after the configuration, such as a second document
+        skipWhitespace();
+        if (peek() != -1) {
+            throw error("Unexpected content after the end of the configuration");
+        }
+
+        if (registry == null) {
+            throw new IllegalArgumentException("Holiday configuration does not contain 'supportedHolidays'");
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    String getLastUpdated() {
+        return lastUpdated;
+    }
+
+    String getLocale() {
+        return locale;
+    }
+
+    HolidayRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Reads the {@code supportedHolidays} object, compiling each holiday as it is read.
+     *
+     * @return the compiled holidays, keyed by name, in dependency order.
+     */
+    private Map<String, Holiday> readHolidays() throws IOException {
+        Map<String, Holiday> compiled = new LinkedHashMap<>();
+
+        // Holidays that depend on a holiday that has not been read yet
+        Map<String, JsonObject> deferred = new LinkedHashMap<>();
+        List<String> holidayNames = new ArrayList<>();
+
+        expect('{');
+        skipWhitespace();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                String holidayName = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+
+                JsonObject jsonRule = readObject();
+                // A holiday compiled earlier may already refer to the first definition, so a second
+                // definition with the same name cannot simply replace it
+                if (compiled.containsKey(holidayName) || deferred.containsKey(holidayName)) {
+                    throw error("Holiday '" + holidayName + "' is defined more than once");
+                }
+                holidayNames.add(holidayName);
+
+                String dependency = HolidayRegistry.getDependency(jsonRule);
+                if (dependency == null || compiled.containsKey(dependency)) {
+                    HolidayRegistry.compile(holidayName, jsonRule, compiled);
+                } else {
+                    deferred.put(holidayName, jsonRule);
+                }
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+        }
+
+        if (!deferred.isEmpty()) {
+            // Every holiday that has already been compiled has its dependencies in place,
+            // so only the deferred holidays need to be sorted
+            Map<String, String> dependencies = new LinkedHashMap<>();
+            for (String holidayName : holidayNames) {
+                JsonObject jsonRule = deferred.get(holidayName);
+                dependencies.put(holidayName, (jsonRule == null) ? null : HolidayRegistry.getDependency(jsonRule));
+            }
+            for (String holidayName : HolidayRegistry.sortByDependency(dependencies)) {
+                JsonObject jsonRule = deferred.remove(holidayName);
+                if (jsonRule != null) {
+                    HolidayRegistry.compile(holidayName, jsonRule, compiled);
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Reads any JSON value.
+     */
+    private JsonValue readValue() throws IOException {
+        switch (peek()) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return Json.value(readString());
+            case 't':
+                readLiteral("true");
+                return Json.TRUE;
+            case 'f':
+                readLiteral("false");
+                return Json.FALSE;
+            case 'n':
+                readLiteral("null");
+                return Json.NULL;
+            default:
+                return readNumber();
+        }
+    }
+
+    private JsonObject readObject() throws IOException {
+        JsonObject object = new JsonObject();
+        expect('{');
+        skipWhitespace();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.add(key, readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+        }
+        return object;
+    }
+
+    private JsonArray readArray() throws IOException {
+        JsonArray array = new JsonArray();
+        expect('[');
+        skipWhitespace();
+        if (!consume(']')) {
+            do {
+                skipWhitespace();
+                array.add(readValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect(']');
+        }
+        return array;
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            expect(literal.charAt(i));
+        }
+    }
+
+    /**
+     * Reads a number, following the JSON grammar: an optional minus sign, an integer part without
+     * leading zeros, and an optional fraction and exponent.
+     */
+    private JsonValue readNumber() throws IOException {
+        text.setLength(0);
+        if (peek() == '-') {
+            text.append(next());
+        }
+        if (peek() == '0') {
+            text.append(next());
+        } else if (!readDigits()) {
+            throw error("Unexpected character");
+        }
+
+        boolean integer = true;
+        if (peek() == '.') {
+            text.append(next());
+            if (!readDigits()) {
+                throw error("Invalid number");
+            }
+            integer = false;
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            text.append(next());
+            if (peek() == '+' || peek() == '-') {
+                text.append(next());
+            }
+            if (!readDigits()) {
+                throw error("Invalid number");
+            }
+            integer = false;
+        }
+
+        String number = text.toString();
+        if (integer) {
+            try {
+                return Json.value(Long.parseLong(number));
+            } catch (NumberFormatException e) {
+                // Too large for a long; minimal-json keeps such numbers too, so read it as a double
+            }
+        }
+        return Json.value(Double.parseDouble(number));
+    }
+
+    /**
+     * Reads a run of decimal digits into {@code text}.
+     *
+     * @return {@code true} if at least one digit was read.
+     */
+    private boolean readDigits() throws IOException {
+        int start = text.length();
+        int c;
+        while ((c = peek()) >= '0' && c <= '9') {
+            text.append(next());
+        }
+        return text.length() > start;
+    }
+
+    /**
+     * Reads a JSON string, including its quotes, and returns its value.
+     */
+    private String readString() throws IOException {
+        expect('"');
+        text.setLength(0);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+
+            c = next();
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    text.append(c);
+                    break;
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    int codePoint = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        codePoint = (codePoint << 4) | digit;
+                    }
+                    text.append((char) codePoint);
+                    break;
+                default:
+                    throw error("Invalid escape sequence");
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            next();
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        next();
+    }
+
+    /**
+     * Consumes the next character if it is {@code expected}.
+     */
+    private boolean consume(char expected) throws IOException {
+        if (peek() == expected) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next character without consuming it, or -1 at the end of the input.
+     */
+    private int peek() throws IOException {
+        if (position < limit) {
+            return buffer[position];
+        }
+        limit = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return -1;
+        }
+        return buffer[0];
+    }
+
+    private char next() throws IOException {
+        int c = peek();
+        if (c == -1) {
+            throw error("Unexpected end of input");
+        }
+        position++;
+        if (c == '\n') {
+            line++;
+        }
+        return (char) c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Holiday configuration is invalid: " + message + " at line " + line);
+    }
+}
@@ -1,14 +1,23 @@
 package com.sschertz.holidays;
 
-import com.eclipsesource.json.Json;
-import com.eclipsesource.json.JsonObject;
-import com.eclipsesource.json.JsonObject.Member;
-import com.eclipsesource.json.JsonValue;
-
 import java.io.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * Creates {@link Holiday} objects based on rules for calculating different holidays. The rules for the
@@ -20,36 +29,90 @@ import java.util.List;
  * Once you have a {@code HolidayFactory}, call {@link #getHoliday(String)} to retrieve a specific holiday.
  * <p>
  * Use {@link #getSupportedHolidays()} to get a {@code List} of all holidays this {@code HolidayFactory} can return.
+ * <p>
+ * Loading a {@code HolidayFactory} parses and compiles its configuration, so code that needs the same
+ * holidays repeatedly should keep the factory or get it from a {@link HolidayFactoryCache}.
+ * <p>
+ * A {@code HolidayFactory} created with {@link #fromFile(String)} can be reloaded from its file while it is
+ * in use (see {@link #reload()} and {@link #watch()}). Reloading compiles the new definitions first and then
+ * swaps them in with a single volatile write, so concurrent lookups are never blocked and always see either
+ * the old or the new set of holidays, together with the name, version and locale loaded with them.
  */
 public class HolidayFactory {
 
     private static String RESOURCE_DEFAULT = "us_holidays_default.json";
     private static String RESOURCE_TEST = "test_holidays.json";
-    private String version, lastUpdated, locale, name;
-    private JsonObject supportedHolidaysJson;
+    // Replaced as a whole when the holidays are reloaded. Changes to the state (loading, setClock and
+    // precomputeYears) synchronize on this factory, so none of them is lost when another one replaces it.
+    private volatile State state;
+
+    // Notified of loads and lookups in every HolidayFactory, see setListener
+    private static volatile HolidayListener listener = HolidayListener.NONE;
+
+    // The file this factory was loaded from, or null if it was not loaded from a file
+    private Path path;
 
     /**
      * Private constructor. Parses the provided {@code reader} and returns a new {@code HolidayFactory}.
+     * All of the holiday definitions are compiled into {@link Holiday} objects up front, so later
+     * lookups do not need to touch the JSON again.
      *
      * @param reader
+     * @throws IOException if the configuration cannot be read. No factory is created, so callers
+     *                     never see one without any holidays.
      */
-    private HolidayFactory(Reader reader) {
+    private HolidayFactory(Reader reader) throws IOException {
+        load(reader);
+    }
 
-        JsonObject configFile;
-        try {
-            configFile = Json.parse(reader).asObject();
+    /**
+     * Parses the provided {@code reader}, compiles the holiday definitions, and then replaces the
+     * holidays in this {@code HolidayFactory} with the new ones.
+     * <p>
+     * The configuration is read with a {@link HolidayConfigReader}, which compiles each holiday as it is
+     * read instead of building a tree of the whole JSON document first.
+     * <p>
+     * When replacing existing holidays, the new holidays keep the {@code Clock} and precomputed range
+     * of years of the old ones. The new state is only published once it is fully built, so readers
+     * never see a partially loaded set of holidays.
+     */
+    private void load(Reader reader) throws IOException {
+        HolidayListener listener = HolidayFactory.listener;
+        long start = (listener == HolidayListener.NONE) ? 0 : System.nanoTime();
+
+        HolidayConfigReader config = new HolidayConfigReader(reader);
+        config.read();
+        HolidayRegistry newRegistry = config.getRegistry();
+
+        // Copy the settings and publish under the lock, so a concurrent setClock or precomputeYears
+        // either happens before the copy or applies to the new registry
+        synchronized (this) {
+            State oldState = state;
+            if (oldState != null) {
+                newRegistry.setClock(oldState.registry.getClock());
+                HolidayYearTable table = oldState.registry.getYearTable();
+                if (table != null) {
+                    newRegistry.precomputeYears(table.getFirstYear(), table.getLastYear());
+                }
+            }
 
-            name = configFile.get("name").asString();
-            version = configFile.get("version").asString();
-            lastUpdated = configFile.get("lastUpdated").asString();
-            locale = configFile.get("locale").asString();
-            supportedHolidaysJson = configFile.get("supportedHolidays").asObject();
+            state = new State(config.getName(), config.getVersion(), config.getLastUpdated(), config.getLocale(),
+                    newRegistry);
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (listener != HolidayListener.NONE) {
+            listener.factoryLoaded(this, System.nanoTime() - start);
         }
     }
 
+    /**
+     * Package-private constructor for a {@code HolidayFactory} whose holidays have already been
+     * compiled (for instance, read from a {@link HolidaySnapshot}).
+     */
+    HolidayFactory(String name, String version, String lastUpdated, String locale, HolidayRegistry registry) {
+        this.state = new State(name, version, lastUpdated, locale, registry);
+    }
+
     /**
      * Returns a new {@code HolidayFactory} using the default set of holidays (generally
      * well known holidays recognized in the United States)
@@ -72,7 +135,7 @@ public class HolidayFactory {
 
     /**
      * Returns a new {@code HolidayFactory} using the set of holidays defined in the specified
-     * {@code resource}. Returns {@code null} if the resource cannot be found.
+     * {@code resource}. Returns {@code null} if the resource cannot be found or read.
      *
      * @param resource name of the resource to use for the configuration file.
      * @return a new {@code HolidayFactory} that can return holidays defined in the specified resource.
@@ -80,13 +143,11 @@ public class HolidayFactory {
     public static HolidayFactory fromResource(String resource) {
 
         InputStream is = HolidayFactory.class.getClassLoader().getResourceAsStream(resource);
-        InputStreamReader reader;
 
         if (is != null) {
-            try {
-                reader = new InputStreamReader(is, "UTF-8");
+            try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
                 return new HolidayFactory(reader);
-            } catch (UnsupportedEncodingException e) {
+            } catch (IOException e) {
                 e.printStackTrace();
             }
         }
@@ -96,23 +157,172 @@ public class HolidayFactory {
     }
 
     /**
-     * NOT YET IMPLEMENTED! Returns a new {@code HolidayFactory} using the set of holidays defined in the specified
-     * {@code filename}. Returns {@code null} if the file cannot be found.
-     * <p>
+     * Returns a new {@code HolidayFactory} using the set of holidays defined in the specified
+     * {@code filename}. Returns {@code null} if the file cannot be found or read, including when it is
+     * not valid UTF-8.
      * <p>
-     * TODO: Add ability to specify a random filename for the JSON def file
+     * The file must use the same format as the built-in configuration files, encoded as UTF-8.
+     * Call {@link #reload()} or {@link #watch()} to pick up later changes to the file.
      *
-     * @param filename
-     * @return
+     * @param filename the path to the configuration file.
+     * @return a new {@code HolidayFactory} that can return holidays defined in the specified file.
      */
-    @SuppressWarnings("UnusedParameters")
     public static HolidayFactory fromFile(String filename) {
-        // code to read in a file here, get a FileReader, then call
-        // the HolidayFactory constructor to do the parsing.
+        Path path = Paths.get(filename);
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            HolidayFactory holidays = new HolidayFactory(reader);
+            holidays.path = path;
+            return holidays;
+        } catch (NoSuchFileException e) {
+            // Failed to get the file
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-        return null;
+    /**
+     * Reloads the holidays from the file this {@code HolidayFactory} was created from, replacing the
+     * current holidays atomically. Lookups running at the same time are not blocked; they see either
+     * the old or the new holidays.
+     * <p>
+     * {@link Holiday} and {@link HolidayCalendar} objects obtained before the reload keep using the old
+     * definitions. The {@code Clock} and any precomputed range of years are carried over to the new holidays.
+     * If the file cannot be read or is invalid, the current holidays are left unchanged.
+     *
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalStateException    if this {@code HolidayFactory} was not created with {@link #fromFile(String)}.
+     * @throws IllegalArgumentException if a holiday definition in the file is invalid.
+     */
+    public synchronized void reload() throws IOException {
+        if (path == null) {
+            throw new IllegalStateException("HolidayFactory was not loaded from a file");
+        }
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            load(reader);
+        }
+    }
+
+    /**
+     * Starts watching the file this {@code HolidayFactory} was created from, and calls {@link #reload()}
+     * whenever it changes. Changes are picked up by a background (daemon) thread using a
+     * {@code WatchService}. If the changed file is invalid, the error is printed and the current
+     * holidays are kept.
+     * <p>
+     * Close the returned object to stop watching.
+     *
+     * @return a {@code Closeable} that stops watching the file when closed.
+     * @throws IOException           if the file's directory cannot be watched.
+     * @throws IllegalStateException if this {@code HolidayFactory} was not created with {@link #fromFile(String)}.
+     */
+    public Closeable watch() throws IOException {
+        if (path == null) {
+            throw new IllegalStateException("HolidayFactory was not loaded from a file");
+        }
+        return new HolidayFileWatcher(this, path);
+    }
+
+
+    /**
+     * Returns a new {@code HolidayFactory} from a snapshot written by {@link #writeSnapshot(OutputStream)}
+     * (or generated with {@link HolidaySnapshot}). Loading a snapshot skips parsing and compiling the
+     * JSON configuration, so it is much faster than {@link #fromResource(String)}.
+     * <p>
+     * The snapshot is read from the {@code buffer}'s current position. If the snapshot includes
+     * precomputed years, they are installed as if {@link #precomputeYears(int, int)} had been called.
+     * The precomputed dates are copied, so {@code buffer} can be reused afterwards.
+     *
+     * @param buffer a {@code ByteBuffer} containing the snapshot.
+     * @return a new {@code HolidayFactory} with the holidays in the snapshot.
+     * @throws IllegalArgumentException if {@code buffer} does not contain a valid snapshot.
+     */
+    public static HolidayFactory fromSnapshot(ByteBuffer buffer) {
+        return readSnapshot(buffer, false);
+    }
+
+    /**
+     * Returns a new {@code HolidayFactory} from a snapshot file. The file is memory-mapped, and the
+     * precomputed dates are read straight from the mapping rather than copied to the heap. Every
+     * process that loads the same file shares a single copy of the dates in the operating system's
+     * page cache, and a large table costs nothing to load beyond mapping it.
+     * <p>
+     * The mapping stays open for as long as the factory is in use. Replace the file with
+     * {@link #writeSnapshot(Path)} rather than writing to it in place.
+     *
+     * @param path the snapshot file.
+     * @return a new {@code HolidayFactory} with the holidays in the snapshot.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not a valid snapshot.
+     * @see #fromSnapshot(ByteBuffer)
+     */
+    public static HolidayFactory fromSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), true);
+        }
+    }
+
+    private static HolidayFactory readSnapshot(ByteBuffer buffer, boolean inPlace) {
+        HolidayListener listener = HolidayFactory.listener;
+        if (listener == HolidayListener.NONE) {
+            return HolidaySnapshot.read(buffer, inPlace);
+        }
+
+        long start = System.nanoTime();
+        HolidayFactory holidays = HolidaySnapshot.read(buffer, inPlace);
+        listener.factoryLoaded(holidays, System.nanoTime() - start);
+        return holidays;
     }
 
+    /**
+     * Writes a compact binary snapshot of the compiled holidays in this {@code HolidayFactory} to {@code out}.
+     * If a range of years has been precomputed (see {@link #precomputeYears(int, int)}), the precomputed
+     * dates are included. Use {@link #fromSnapshot(ByteBuffer)} or {@link #fromSnapshot(Path)} to load it.
+     * <p>
+     * The stream is flushed but not closed.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void writeSnapshot(OutputStream out) throws IOException {
+        HolidaySnapshot.write(this, out);
+    }
+
+    /**
+     * Writes a snapshot (see {@link #writeSnapshot(OutputStream)}) to the file {@code path}, to be loaded
+     * with {@link #fromSnapshot(Path)}. The snapshot is written to a temporary file which then replaces
+     * {@code path}, so processes that have already mapped the old file are not affected.
+     *
+     * @param path the file to write.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        HolidaySnapshot.write(this, path);
+    }
+
+    /**
+     * Writes the holidays in this {@code HolidayFactory} from {@code firstYear} to {@code lastYear}
+     * (inclusive) to {@code out} as an iCalendar (RFC 5545) feed. See {@link HolidayICalendarWriter}
+     * for details, and to write to a {@code WritableByteChannel}.
+     * <p>
+     * The writer is flushed but not closed.
+     *
+     * @param out       the writer to write to.
+     * @param firstYear the first year to include.
+     * @param lastYear  the last year to include.
+     * @throws IOException if the feed cannot be written.
+     */
+    public void writeICalendar(Writer out, int firstYear, int lastYear) throws IOException {
+        new HolidayICalendarWriter(out).write(this, firstYear, lastYear);
+    }
+
+    /**
+     * Returns the compiled holidays for this {@code HolidayFactory}.
+     */
+    HolidayRegistry getRegistry() {
+        return state.registry;
+    }
 
     /**
      * Tests whether this {@code HolidayFactory} contains a definition for the holiday
@@ -122,9 +332,7 @@ public class HolidayFactory {
      * @return {@code true} if the specified {@code holiday} is defined; {@code false} otherwise.
      */
     public boolean isHolidayDefined(String holidayName) {
-
-        JsonValue result = supportedHolidaysJson.get(holidayName);
-        return result != null;
+        return state.registry.contains(holidayName);
     }
 
     /**
@@ -132,56 +340,181 @@ public class HolidayFactory {
      * {@code holidayName} string. The {@link Holiday} returned contains
      * basic information (such as a display name) and the specific rules for how the
      * holiday should be calculated.
+     * <p>
+     * Holidays are compiled when the {@code HolidayFactory} is created, so every call
+     * for the same {@code holidayName} returns the same (immutable) {@link Holiday} object.
      *
      * @param holidayName a {@code String} with the name of the holiday to retrieve.
      * @return a {@link Holiday} object for the specified holiday; {@code null} if the
      * requested holiday is not defined in this {@code HolidayFactory}.
      */
     public Holiday getHoliday(String holidayName) {
+        HolidayListener listener = HolidayFactory.listener;
+        if (listener == HolidayListener.NONE) {
+            return state.registry.get(holidayName);
+        }
 
-        JsonObject jsonRule = getHolidayJson(holidayName);
-        if (jsonRule == null) {
-            return null;
+        long start = System.nanoTime();
+        Holiday holiday = state.registry.get(holidayName);
+        listener.holidayLookedUp(holidayName, holiday != null, System.nanoTime() - start);
+        return holiday;
+    }
+
+    /**
+     * Returns all the holidays supported by this {@code HolidayFactory} that fall on the
+     * specified {@code date}, sorted alphabetically.
+     * <p>
+     * The first call for a particular year builds an index of that year's holidays by date;
+     * later calls for the same year are a single lookup.
+     *
+     * @param date the date to check.
+     * @return an unmodifiable {@code List} of the {@link Holiday} objects that occur on
+     * {@code date}; an empty {@code List} if there are none.
+     */
+    public List<Holiday> getHolidaysOn(LocalDate date) {
+        return state.registry.getCalendar().getHolidaysOn(date);
+    }
+
+    /**
+     * Returns every occurrence of the holidays supported by this {@code HolidayFactory} from
+     * {@code startInclusive} to {@code endInclusive}, in date order. The {@code Stream} is
+     * generated lazily, one year at a time.
+     * <p>
+     * This is the same as calling {@link HolidayCalendar#getOccurrences(LocalDate, LocalDate)}
+     * on {@link #getCalendar()}.
+     *
+     * @param startInclusive the first date to include.
+     * @param endInclusive   the last date to include.
+     * @return a sequential, date-ordered {@code Stream} of {@link HolidayOccurrence} objects.
+     */
+    public Stream<HolidayOccurrence> getOccurrences(LocalDate startInclusive, LocalDate endInclusive) {
+        return state.registry.getCalendar().getOccurrences(startInclusive, endInclusive);
+    }
+
+    /**
+     * Returns the next {@code count} occurrences of the holidays supported by this {@code HolidayFactory}
+     * on or after {@code date}, in date order.
+     * <p>
+     * This is the same as calling {@link HolidayCalendar#getNextOccurrences(LocalDate, int)} on
+     * {@link #getCalendar()}.
+     *
+     * @param date  the date to start from.
+     * @param count the number of occurrences to return.
+     * @return an unmodifiable, date-ordered {@code List} of {@link HolidayOccurrence} objects.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getNextOccurrences(LocalDate date, int count) {
+        return state.registry.getCalendar().getNextOccurrences(date, count);
+    }
+
+    /**
+     * Returns the next {@code count} occurrences of the holidays supported by this {@code HolidayFactory},
+     * starting from today. Uses the provided time zone (and this factory's {@code Clock}, see
+     * {@link #setClock(Clock)}) when determining today. A holiday that occurs today is included.
+     *
+     * @param zoneId a {@code ZoneId} for a time zone to use when determining today.
+     * @param count  the number of occurrences to return.
+     * @return an unmodifiable, date-ordered {@code List} of {@link HolidayOccurrence} objects.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getNextOccurrences(ZoneId zoneId, int count) {
+        return getNextOccurrences(LocalDate.now(state.registry.getClock().withZone(zoneId)), count);
+    }
+
+    /**
+     * Returns the last {@code count} occurrences of the holidays supported by this {@code HolidayFactory}
+     * on or before {@code date}, most recent first.
+     * <p>
+     * This is the same as calling {@link HolidayCalendar#getPreviousOccurrences(LocalDate, int)} on
+     * {@link #getCalendar()}.
+     *
+     * @param date  the date to start from.
+     * @param count the number of occurrences to return.
+     * @return an unmodifiable {@code List} of {@link HolidayOccurrence} objects, most recent first.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getPreviousOccurrences(LocalDate date, int count) {
+        return state.registry.getCalendar().getPreviousOccurrences(date, count);
+    }
+
+    /**
+     * Returns the last {@code count} occurrences of the holidays supported by this {@code HolidayFactory},
+     * starting from today. Uses the provided time zone (and this factory's {@code Clock}, see
+     * {@link #setClock(Clock)}) when determining today. A holiday that occurs today is included.
+     *
+     * @param zoneId a {@code ZoneId} for a time zone to use when determining today.
+     * @param count  the number of occurrences to return.
+     * @return an unmodifiable {@code List} of {@link HolidayOccurrence} objects, most recent first.
+     * @throws IllegalArgumentException if {@code count} is negative.
+     */
+    public List<HolidayOccurrence> getPreviousOccurrences(ZoneId zoneId, int count) {
+        return getPreviousOccurrences(LocalDate.now(state.registry.getClock().withZone(zoneId)), count);
+    }
+
+    /**
+     * Returns a {@link HolidayCalendar} containing every holiday supported by this {@code HolidayFactory}.
+     * Use the calendar to quickly test whether a date is a holiday.
+     *
+     * @return a {@link HolidayCalendar} with all supported holidays.
+     */
+    public HolidayCalendar getCalendar() {
+        return state.registry.getCalendar();
+    }
+
+    /**
+     * Returns a new {@link HolidayCalendar} containing every holiday supported by all of the provided
+     * {@code factories} (for instance, federal holidays, exchange holidays and company closures). The
+     * combined calendar builds one merged index per year, so checking a date is a single lookup rather
+     * than one per factory.
+     * <p>
+     * The calendar uses the holidays the factories have when it is created; it does not follow later
+     * reloads (see {@link #reload()}).
+     *
+     * @param factories the factories whose holidays to combine.
+     * @return a new {@link HolidayCalendar} with the holidays of all the {@code factories}.
+     * @see HolidayCalendar#combine(HolidayCalendar...)
+     */
+    public static HolidayCalendar combine(HolidayFactory... factories) {
+        HolidayCalendar[] calendars = new HolidayCalendar[factories.length];
+        for (int i = 0; i < factories.length; i++) {
+            calendars[i] = factories[i].getCalendar();
         }
+        return HolidayCalendar.combine(calendars);
+    }
 
-        // Get the ruleType so we know which object to create
-        Holiday.RuleType ruleType = Holiday.RuleType.valueOf(jsonRule.get("type").asString().toUpperCase());
-
-        switch (ruleType) {
-            case STATIC_DATE:
-                return new StaticDate(jsonRule);
-            case WEEK_IN_MONTH:
-                return new WeekInMonth(jsonRule);
-            case LAST_IN_MONTH:
-                return new LastInMonth(jsonRule);
-            case LAST_FULL_WEEK_OF_MONTH:
-                return new LastFullWeekOfMonth(jsonRule);
-            case FIRST_FULL_WEEK_OF_MONTH:
-                return new FirstFullWeekOfMonth(jsonRule);
-            case EASTER:
-                return new Easter(jsonRule);
-            case DAYS_BEFORE_HOLIDAY:
-                // This is a special case that depends on another holiday.
-                // We need to make sure that the other holiday definition exists
-                // within the set of holidays supported by this HolidayFactory
-
-                JsonObject otherHolidayJson = jsonRule.get("rule").asObject();
-                String otherHolidayString = otherHolidayJson.get("holiday").asString();
-                if (this.isHolidayDefined(otherHolidayString)) {
-                    return new DaysBeforeHoliday(jsonRule, this.getHoliday(otherHolidayString));
-                } else {
-                    // the holiday definition is invalid. It depends on a holiday
-                    // that has not been defined.
-                    throw new IllegalArgumentException("Holiday rule definition is invalid");
-                }
-            default:
-                System.out.println("Fell all the way into default.");
-                break;
+    /**
+     * Returns a {@link HolidayCalendar} containing only the "observed" holidays supported by this
+     * {@code HolidayFactory}: holidays that are moved to the Friday before or the Monday after when they
+     * fall on a weekend (such as "christmas observed"). These are typically the dates of closures
+     * and days off.
+     * <p>
+     * Like every {@link HolidayCalendar}, this caches each year's observed dates the first time the
+     * year is used, so checking many dates does not re-evaluate the holiday rules.
+     *
+     * @return a {@link HolidayCalendar} with the observed holidays.
+     */
+    public HolidayCalendar getObservedCalendar() {
+        return state.registry.getObservedCalendar();
+    }
+
+    /**
+     * Returns a new {@link HolidayCalendar} containing only the holidays identified by
+     * {@code holidayNames} (for instance, only the holidays that are observed as days off).
+     *
+     * @param holidayNames the names of the holidays to include in the calendar.
+     * @return a new {@link HolidayCalendar} with the specified holidays.
+     * @throws IllegalArgumentException if any of the holidays is not defined in this {@code HolidayFactory}.
+     */
+    public HolidayCalendar getCalendar(String... holidayNames) {
+        Set<Holiday> holidays = new LinkedHashSet<>();
+        for (String holidayName : holidayNames) {
+            Holiday holiday = state.registry.get(holidayName);
+            if (holiday == null) {
+                throw new IllegalArgumentException("Holiday is not defined: " + holidayName);
+            }
+            holidays.add(holiday);
         }
-        // this should never happen once the switch statement is implemented.
-        // if we passed a bad ruleType that doesn't match, a runtime
-        // exception should happen before we even start the switch.
-        return null;
+        return new HolidayCalendar(holidays.toArray(new Holiday[holidays.size()]));
     }
 
     /**
@@ -208,6 +541,78 @@ public class HolidayFactory {
 
     }
 
+    /**
+     * Precomputes the dates of every supported holiday for each year from {@code firstYear} to
+     * {@code lastYear} (inclusive). After this, {@link Holiday#getDate(int)} and
+     * {@link Holiday#getEpochDay(int)} for any year in the range read the date from a table instead of
+     * calculating it. Years outside the range are still calculated from the holiday's rule.
+     * <p>
+     * This replaces any range precomputed by an earlier call.
+     *
+     * @param firstYear the first year to precompute.
+     * @param lastYear  the last year to precompute (inclusive).
+     * @throws IllegalArgumentException if {@code firstYear} is after {@code lastYear}.
+     */
+    public synchronized void precomputeYears(int firstYear, int lastYear) {
+        state.registry.precomputeYears(firstYear, lastYear);
+    }
+
+    /**
+     * Same as {@link #precomputeYears(int, int)}, but splits the range of years across the threads
+     * of the provided {@code ForkJoinPool}. Use this for very large ranges (thousands of years).
+     * The resulting dates are identical to those computed by {@link #precomputeYears(int, int)}.
+     *
+     * @param firstYear the first year to precompute.
+     * @param lastYear  the last year to precompute (inclusive).
+     * @param pool      the {@code ForkJoinPool} to use, such as {@code ForkJoinPool.commonPool()}.
+     * @throws IllegalArgumentException if {@code firstYear} is after {@code lastYear}.
+     */
+    public synchronized void precomputeYears(int firstYear, int lastYear, ForkJoinPool pool) {
+        state.registry.precomputeYears(firstYear, lastYear, pool);
+    }
+
+    /**
+     * Gets the {@code Clock} used to determine today's date for {@link Holiday#getDate()} and
+     * {@link Holiday#getDate(Holiday.TimeFrame, java.time.ZoneId)}.
+     *
+     * @return the {@code Clock} for the holidays from this {@code HolidayFactory}.
+     */
+    public Clock getClock() {
+        return state.registry.getClock();
+    }
+
+    /**
+     * Sets the {@code Clock} used to determine today's date for every {@link Holiday} from this
+     * {@code HolidayFactory}. By default this is the system clock. Use a fixed or offset clock
+     * to test code that depends on the next or last occurrence of a holiday.
+     *
+     * @param clock the {@code Clock} to use.
+     */
+    public synchronized void setClock(Clock clock) {
+        state.registry.setClock(Objects.requireNonNull(clock, "clock"));
+    }
+
+    /**
+     * Gets the {@link HolidayListener} that is notified of work done by every {@code HolidayFactory}
+     * in this process.
+     *
+     * @return the current listener; {@link HolidayListener#NONE} if instrumentation is turned off.
+     */
+    public static HolidayListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets the {@link HolidayListener} that is notified of work done by every {@code HolidayFactory}
+     * (and {@link HolidayFactoryCache}) in this process, such as {@link HolidayMetrics}. Use
+     * {@link HolidayListener#NONE} to turn instrumentation off again; that is the default.
+     *
+     * @param listener the listener to use.
+     */
+    public static void setListener(HolidayListener listener) {
+        HolidayFactory.listener = Objects.requireNonNull(listener, "listener");
+    }
+
     /**
      * Gets a version number for the holiday configuration file.
      * <p>
@@ -216,7 +621,7 @@ public class HolidayFactory {
      * @return a string for the version number
      */
     public String getVersion() {
-        return version;
+        return state.version;
     }
 
     /**
@@ -227,36 +632,44 @@ public class HolidayFactory {
      * @return a string for the last updated date.
      */
     public String getLastUpdated() {
-        return lastUpdated;
+        return state.lastUpdated;
     }
 
     /**
      * Gets a string specifying the locale for the holiday config file.
      * <p>
-     * Note that this currently does not mean anything -- the factory does
-     * not support multiple locales.
+     * Each {@code HolidayFactory} holds the holidays for a single locale. To work with several locales,
+     * load one factory per locale; {@link HolidayFactoryCache#get(java.util.Locale)} finds and caches
+     * the default holidays for a country.
      *
      * @return a string containing the locale for the config file.
      */
     public String getLocale() {
-        return locale;
+        return state.locale;
     }
 
     /**
      * Gets a {@code List} of {@link Holiday} objects representing all the holidays
-     * supported by this {@code HolidayFactory}, sorted alphabetically.
+     * supported by this {@code HolidayFactory}, sorted alphabetically. The list is
+     * sorted once, when the holidays are loaded.
      *
-     * @return a {@code List} of {@link Holiday} objects, sorted alphabetically.
+     * @return an unmodifiable {@code List} of {@link Holiday} objects, sorted alphabetically.
      */
     public List<Holiday> getSupportedHolidays() {
+        return state.registry.getCalendar().getHolidays();
+    }
 
-        List<Holiday> holidayList = new ArrayList<>();
-        for (Member holiday : supportedHolidaysJson) {
-            holidayList.add(getHoliday(holiday.getName()));
-        }
-        Collections.sort(holidayList);
-
-        return holidayList;
+    /**
+     * Gets a {@code List} of {@link Holiday} objects representing all the holidays
+     * supported by this {@code HolidayFactory}, sorted by the date they occur in
+     * {@code year}. The list is cached per year.
+     *
+     * @param year the year.
+     * @return an unmodifiable {@code List} of {@link Holiday} objects, sorted by date.
+     * @see HolidayCalendar#getHolidays(int)
+     */
+    public List<Holiday> getSupportedHolidays(int year) {
+        return state.registry.getCalendar().getHolidays(year);
     }
 
     /**
@@ -268,9 +681,11 @@ public class HolidayFactory {
      */
     @Override
     public String toString() {
+        // Read the state once, so the name and holidays come from the same load
+        State state = this.state;
         StringBuilder sb = new StringBuilder();
-        sb.append(this.getName()).append(": ");
-        List<Holiday> holidayList = this.getSupportedHolidays();
+        sb.append(state.name).append(": ");
+        List<Holiday> holidayList = state.registry.getCalendar().getHolidays();
         for (Holiday holiday : holidayList) {
             sb.append(holiday.getDisplayName());
             sb.append(", ");
@@ -285,15 +700,7 @@ public class HolidayFactory {
      * @return the name of the configuration file.
      */
     public String getName() {
-        return name;
-    }
-
-    private JsonObject getHolidayJson(String holiday) {
-
-        // get the JsonValue for the requested holiday.
-        JsonValue result = supportedHolidaysJson.get(holiday);
-
-        return (result != null) ? result.asObject() : null;
+        return state.name;
     }
 
     /**
@@ -325,6 +732,7 @@ public class HolidayFactory {
         HALLOWEEN("halloween"),
         HARVEY_MILK_DAY("harvey milk day"),
         INDEPENDENCE_DAY("independence day"),
+        INDEPENDENCE_DAY_OBSERVED("independence day observed"),
         INDIGENOUS_PEOPLES_DAY("indigenous peoples day"),
         JUNETEENTH("juneteenth"),
         LABOR_DAY("labor day"),
@@ -333,6 +741,7 @@ public class HolidayFactory {
         MOTHERS_DAY("mothers day"),
         NATIVE_AMERICANS_DAY("native americans day"),
         NEW_YEARS_DAY("new years day"),
+        NEW_YEARS_DAY_OBSERVED("new years day observed"),
         NEW_YEARS_EVE("new years eve"),
         PALM_SUNDAY("palm sunday"),
         PRESIDENTS_DAY("presidents day"),
@@ -350,4 +759,24 @@ public class HolidayFactory {
             return friendlyName;
         }
     }
+
+    /**
+     * The holidays and the metadata loaded with them.
+     */
+    private static final class State {
+
+        private final String name;
+        private final String version;
+        private final String lastUpdated;
+        private final String locale;
+        private final HolidayRegistry registry;
+
+        State(String name, String version, String lastUpdated, String locale, HolidayRegistry registry) {
+            this.name = name;
+            this.version = version;
+            this.lastUpdated = lastUpdated;
+            this.locale = locale;
+            this.registry = registry;
+        }
+    }
 }
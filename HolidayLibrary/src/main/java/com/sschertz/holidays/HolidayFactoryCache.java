@@ -0,0 +1,299 @@
+package com.sschertz.holidays;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of {@link HolidayFactory} objects, keyed by the resource they are loaded from.
+ * Use this instead of calling {@link HolidayFactory#fromResource(String)} repeatedly when the same
+ * holiday sets are needed over and over (for instance, once per request in a multi-tenant service).
+ * <p>
+ * When the cache is full, the least recently used factory is evicted. If several threads ask for the
+ * same resource at the same time and it is not cached, it is only loaded once: the first thread loads
+ * it and the others wait for the result.
+ * <p>
+ * Cached factories are shared by every caller, so settings such as {@link HolidayFactory#setClock(java.time.Clock)}
+ * and {@link HolidayFactory#precomputeYears(int, int)} apply to everyone using the same resource.
+ * <p>
+ * {@code HolidayFactoryCache} objects are thread-safe. Use {@link #getDefault()} for a process-wide cache.
+ */
+public final class HolidayFactoryCache {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 32;
+    private static final HolidayFactoryCache DEFAULT = new HolidayFactoryCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final int maximumSize;
+
+    // Guarded by itself. Values are futures so that concurrent misses for the same
+    // resource wait for a single load instead of each loading the resource.
+    private final Map<String, CompletableFuture<HolidayFactory>> factories;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    /**
+     * Creates a new, empty cache.
+     *
+     * @param maximumSize the maximum number of factories to keep.
+     * @throws IllegalArgumentException if {@code maximumSize} is less than 1.
+     */
+    public HolidayFactoryCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+        factories = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the process-wide cache, which holds up to 32 factories.
+     *
+     * @return the shared {@code HolidayFactoryCache}.
+     */
+    public static HolidayFactoryCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the {@link HolidayFactory} for the specified {@code resource}, loading it with
+     * {@link HolidayFactory#fromResource(String)} if it is not already cached. Returns {@code null}
+     * (and caches nothing) if the resource cannot be found.
+     *
+     * @param resource name of the resource to use for the configuration file.
+     * @return the cached {@code HolidayFactory} for {@code resource}.
+     * @throws IllegalArgumentException if the resource contains an invalid holiday definition.
+     */
+    public HolidayFactory get(String resource) {
+        CompletableFuture<HolidayFactory> future;
+        boolean load = false;
+        synchronized (factories) {
+            future = factories.get(resource);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                factories.put(resource, future);
+                load = true;
+            }
+        }
+
+        HolidayListener listener = HolidayFactory.getListener();
+        if (!load) {
+            hits.increment();
+            listener.cacheHit(resource);
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                // Throw what the thread that loaded the resource threw, as documented
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        misses.increment();
+        listener.cacheMiss(resource);
+        long start = System.nanoTime();
+        try {
+            HolidayFactory holidays = HolidayFactory.fromResource(resource);
+            totalLoadNanos.add(System.nanoTime() - start);
+            if (holidays == null) {
+                loadFailures.increment();
+                remove(resource, future);
+            } else {
+                loads.increment();
+                evict(future);
+            }
+            future.complete(holidays);
+            return holidays;
+        } catch (RuntimeException e) {
+            totalLoadNanos.add(System.nanoTime() - start);
+            loadFailures.increment();
+            remove(resource, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the {@link HolidayFactory} for the default holidays of the country of the specified
+     * {@code locale}. The resource is named after the country code: for instance,
+     * {@code Locale.US} maps to {@code us_holidays_default.json} (the holidays returned by
+     * {@link HolidayFactory#fromDefaults()}).
+     *
+     * @param locale a {@code Locale} with a country.
+     * @return the cached {@code HolidayFactory} for the country; {@code null} if there are no
+     * holidays defined for it.
+     * @throws IllegalArgumentException if {@code locale} does not specify a country.
+     */
+    public HolidayFactory get(Locale locale) {
+        if (locale.getCountry().isEmpty()) {
+            throw new IllegalArgumentException("Locale does not specify a country: " + locale);
+        }
+        return get(locale.getCountry().toLowerCase(Locale.ROOT) + "_holidays_default.json");
+    }
+
+    /**
+     * Removes the factory for {@code resource}, so the next request loads it again.
+     *
+     * @param resource name of the resource.
+     */
+    public void invalidate(String resource) {
+        synchronized (factories) {
+            factories.remove(resource);
+        }
+    }
+
+    /**
+     * Removes every cached factory. The statistics are not reset.
+     */
+    public void invalidateAll() {
+        synchronized (factories) {
+            factories.clear();
+        }
+    }
+
+    /**
+     * Returns the number of factories currently cached (including any that are being loaded).
+     *
+     * @return the number of cached factories.
+     */
+    public int size() {
+        synchronized (factories) {
+            return factories.size();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics for this cache.
+     *
+     * @return the current {@link Stats}.
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), evictions.sum(),
+                totalLoadNanos.sum());
+    }
+
+    /**
+     * Evicts least recently used factories until the cache is back within its maximum size. Factories
+     * that are still loading are left alone, as is {@code loaded}. Eviction waits until a load succeeds
+     * so that requests for missing resources never push out a good factory.
+     */
+    private void evict(CompletableFuture<HolidayFactory> loaded) {
+        synchronized (factories) {
+            Iterator<CompletableFuture<HolidayFactory>> eldest = factories.values().iterator();
+            while (factories.size() > maximumSize && eldest.hasNext()) {
+                CompletableFuture<HolidayFactory> future = eldest.next();
+                if (future != loaded && future.isDone()) {
+                    eldest.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    private void remove(String resource, CompletableFuture<HolidayFactory> future) {
+        synchronized (factories) {
+            if (factories.get(resource) == future) {
+                factories.remove(resource);
+            }
+        }
+    }
+
+    /**
+     * Statistics for a {@link HolidayFactoryCache}, as of the time they were requested.
+     */
+    public static final class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long totalLoadTimeNanos;
+
+        Stats(long hitCount, long missCount, long loadCount, long loadFailureCount, long evictionCount,
+              long totalLoadTimeNanos) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+        }
+
+        /**
+         * Returns the number of requests answered from the cache, including requests that waited
+         * for another thread to finish loading the same resource.
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns the number of requests that had to load a resource.
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the number of resources loaded successfully.
+         */
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        /**
+         * Returns the number of loads that failed because the resource was missing or invalid.
+         */
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        /**
+         * Returns the number of factories evicted because the cache was full.
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the total time spent loading resources, in nanoseconds.
+         */
+        public long getTotalLoadTimeNanos() {
+            return totalLoadTimeNanos;
+        }
+
+        /**
+         * Returns the average time spent loading a resource, in nanoseconds; 0 if nothing has been loaded.
+         */
+        public double getAverageLoadTimeNanos() {
+            long attempts = loadCount + loadFailureCount;
+            return (attempts == 0) ? 0 : (double) totalLoadTimeNanos / attempts;
+        }
+
+        /**
+         * Returns the fraction of requests answered from the cache; 1 if there have been no requests.
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return (requests == 0) ? 1 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount +
+                    ", loadFailures=" + loadFailureCount + ", evictions=" + evictionCount +
+                    ", totalLoadTimeNanos=" + totalLoadTimeNanos + "}";
+        }
+    }
+}
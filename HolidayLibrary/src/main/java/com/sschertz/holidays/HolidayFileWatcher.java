@@ -0,0 +1,97 @@
+package com.sschertz.holidays;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a holiday configuration file and reloads a {@link HolidayFactory} when it changes. Use
+ * {@link HolidayFactory#watch()} to get an object of this class.
+ * <p>
+ * The directory containing the file is registered with a {@code WatchService}, and a daemon thread
+ * waits for events on it. Editors often save a file as several events in quick succession (or by
+ * writing a new file and renaming it), so events that arrive within {@link #SETTLE_MILLIS} of each
+ * other are combined into a single reload.
+ */
+final class HolidayFileWatcher implements Closeable {
+
+    private static final long SETTLE_MILLIS = 100;
+
+    private final HolidayFactory holidays;
+    private final Path fileName;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    HolidayFileWatcher(HolidayFactory holidays, Path path) throws IOException {
+        this.holidays = holidays;
+        Path absolutePath = path.toAbsolutePath();
+        fileName = absolutePath.getFileName();
+
+        watchService = absolutePath.getFileSystem().newWatchService();
+        try {
+            absolutePath.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+
+        thread = new Thread(this::run, "HolidayFileWatcher-" + fileName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!isChanged(watchService.take())) {
+                    continue;
+                }
+
+                // Wait for the file to settle before reading it
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isChanged(key);
+                }
+
+                try {
+                    holidays.reload();
+                } catch (IOException | RuntimeException e) {
+                    // Keep the current holidays until the file is fixed
+                    e.printStackTrace();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Stopped watching
+        }
+    }
+
+    /**
+     * Tests whether any of the events for {@code key} are for the watched file, and resets the key.
+     */
+    private boolean isChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,262 @@
+package com.sschertz.holidays;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Writes the holidays from a {@link HolidayFactory} as an iCalendar (RFC 5545) feed of all-day events.
+ * <p>
+ * Holidays whose rule can be written as an iCalendar recurrence rule (most {@code static_date},
+ * {@code week_in_month} and {@code last_in_month} holidays) are written as a single recurring event.
+ * Every other holiday is written as one event per year, since the dates of those holidays cannot be
+ * described by a recurrence rule. Years in which a holiday does not occur (February 29 outside leap
+ * years) are left out.
+ * <p>
+ * The feed is written line by line as it is generated, with lines folded at 75 octets and ended with
+ * CRLF as the RFC requires. A single line buffer is reused for the whole feed, so writing a feed for
+ * a long range of years does not build it up in memory first.
+ * <p>
+ * {@code HolidayICalendarWriter} objects are not thread-safe.
+ */
+public final class HolidayICalendarWriter implements Flushable {
+
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final int CHANNEL_BUFFER_SIZE = 8192;
+    private static final String PRODUCT_ID = "-//sschertz//Holiday Calculation Library//EN";
+
+    private final Writer out;
+
+    // Reused for every line: the unfolded content line, and the folded characters written to out
+    private final StringBuilder line = new StringBuilder(128);
+    private char[] folded = new char[512];
+
+    /**
+     * Creates a writer that writes to {@code out}. For best performance, {@code out} should be buffered.
+     *
+     * @param out the {@code Writer} to write the feed to.
+     */
+    public HolidayICalendarWriter(Writer out) {
+        this.out = Objects.requireNonNull(out, "out");
+    }
+
+    /**
+     * Creates a writer that writes a UTF-8 encoded feed to {@code channel}.
+     *
+     * @param channel the channel to write the feed to.
+     */
+    public HolidayICalendarWriter(WritableByteChannel channel) {
+        this(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), CHANNEL_BUFFER_SIZE));
+    }
+
+    /**
+     * Writes a complete iCalendar feed containing every holiday supported by {@code holidays} from
+     * {@code firstYear} to {@code lastYear} (inclusive), then flushes the output. The output is not closed.
+     *
+     * @param holidays  the holidays to write.
+     * @param firstYear the first year to include.
+     * @param lastYear  the last year to include.
+     * @throws IOException              if the feed cannot be written.
+     * @throws IllegalArgumentException if {@code lastYear} is before {@code firstYear}.
+     */
+    public void write(HolidayFactory holidays, int firstYear, int lastYear) throws IOException {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("lastYear " + lastYear + " is before firstYear " + firstYear);
+        }
+
+        String domain = uidPart(holidays.getName());
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.now(holidays.getClock()), ZoneOffset.UTC);
+
+        line.append("BEGIN:VCALENDAR");
+        writeLine();
+        line.append("VERSION:2.0");
+        writeLine();
+        line.append("PRODID:").append(PRODUCT_ID);
+        writeLine();
+        line.append("CALSCALE:GREGORIAN");
+        writeLine();
+        if (holidays.getName() != null) {
+            line.append("X-WR-CALNAME:");
+            appendText(holidays.getName());
+            writeLine();
+        }
+
+        for (Holiday holiday : holidays.getSupportedHolidays()) {
+            String recurrenceRule = holiday.getRecurrenceRule();
+            if (recurrenceRule != null) {
+                // The recurring event starts at the first occurrence in the range
+                for (int year = firstYear; year <= lastYear; year++) {
+                    long epochDay = holiday.findEpochDay(year);
+                    if (epochDay != Holiday.NO_DATE) {
+                        writeEvent(holiday, uidPart(holiday.getName()) + "@" + domain, epochDay,
+                                recurrenceRule, lastYear, now);
+                        break;
+                    }
+                }
+            } else {
+                for (int year = firstYear; year <= lastYear; year++) {
+                    long epochDay = holiday.findEpochDay(year);
+                    if (epochDay != Holiday.NO_DATE) {
+                        writeEvent(holiday, uidPart(holiday.getName()) + "-" + year + "@" + domain,
+                                epochDay, null, 0, now);
+                    }
+                }
+            }
+        }
+
+        line.append("END:VCALENDAR");
+        writeLine();
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void writeEvent(Holiday holiday, String uid, long epochDay, String recurrenceRule, int lastYear,
+                            LocalDateTime now) throws IOException {
+        line.append("BEGIN:VEVENT");
+        writeLine();
+        line.append("UID:").append(uid);
+        writeLine();
+        line.append("DTSTAMP:");
+        appendDate(now.getYear(), now.getMonthValue(), now.getDayOfMonth());
+        line.append('T');
+        appendTwoDigits(now.getHour());
+        appendTwoDigits(now.getMinute());
+        appendTwoDigits(now.getSecond());
+        line.append('Z');
+        writeLine();
+        line.append("DTSTART;VALUE=DATE:");
+        appendDate(epochDay);
+        writeLine();
+        line.append("DTEND;VALUE=DATE:");
+        appendDate(epochDay + 1);
+        writeLine();
+        if (recurrenceRule != null) {
+            line.append("RRULE:").append(recurrenceRule).append(";UNTIL=");
+            appendDate(lastYear, 12, 31);
+            writeLine();
+        }
+        line.append("SUMMARY:");
+        appendText(holiday.getDisplayName());
+        writeLine();
+        line.append("TRANSP:TRANSPARENT");
+        writeLine();
+        line.append("END:VEVENT");
+        writeLine();
+    }
+
+    /**
+     * Writes the current line, folded so that no physical line is longer than 75 octets of UTF-8,
+     * followed by CRLF. Lines are never folded in the middle of a character.
+     */
+    private void writeLine() throws IOException {
+        int length = line.length();
+        // Worst case, every character starts a new physical line
+        int capacity = length * 4 + 2;
+        if (folded.length < capacity) {
+            folded = new char[Math.max(capacity, folded.length * 2)];
+        }
+
+        int count = 0;
+        int octets = 0;
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            int size;
+            if (c < 0x80) {
+                size = 1;
+            } else if (c < 0x800) {
+                size = 2;
+            } else if (Character.isHighSurrogate(c)) {
+                size = 4;
+            } else if (Character.isLowSurrogate(c)) {
+                size = 0;
+            } else {
+                size = 3;
+            }
+
+            if (size > 0 && octets + size > MAX_LINE_OCTETS) {
+                folded[count++] = '\r';
+                folded[count++] = '\n';
+                folded[count++] = ' ';
+                octets = 1;
+            }
+            folded[count++] = c;
+            octets += size;
+        }
+        folded[count++] = '\r';
+        folded[count++] = '\n';
+
+        out.write(folded, 0, count);
+        line.setLength(0);
+    }
+
+    /**
+     * Appends {@code text} as an iCalendar TEXT value.
+     */
+    private void appendText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                case ';':
+                case ',':
+                    line.append('\\').append(c);
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    break;
+                default:
+                    line.append(c);
+            }
+        }
+    }
+
+    private void appendDate(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        appendDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    private void appendDate(int year, int month, int day) {
+        if (year < 1000) {
+            line.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        line.append(year);
+        appendTwoDigits(month);
+        appendTwoDigits(day);
+    }
+
+    private void appendTwoDigits(int value) {
+        if (value < 10) {
+            line.append('0');
+        }
+        line.append(value);
+    }
+
+    /**
+     * Converts {@code name} to a form that can be used in a UID: lower case letters, digits and dashes.
+     */
+    private static String uidPart(String name) {
+        if (name == null || name.isEmpty()) {
+            return "holidays";
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            sb.append((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ? c : '-');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sschertz.holidays;
+
+/**
+ * Receives notifications about work done inside the library, for collecting metrics. Install a
+ * listener for the whole process with {@link HolidayFactory#setListener(HolidayListener)};
+ * {@link HolidayMetrics} is a ready-made implementation that counts events and records latencies.
+ * <p>
+ * The default listener is {@link #NONE}, which does nothing. While it is installed the library does
+ * not read the system timer at all, so instrumentation costs nothing unless it is turned on.
+ * <p>
+ * Listeners are called synchronously on the thread doing the work (often a hot path), so they must
+ * be thread-safe and fast. Every method does nothing by default.
+ * <p>
+ * Work that is answered from a cache is not reported: checks against a {@link HolidayCalendar} year
+ * index that has already been built, and the next and last dates that a {@link Holiday} caches for
+ * each time zone until midnight. When those caches are refreshed, the dates they calculate are reported.
+ */
+public interface HolidayListener {
+
+    /**
+     * A listener that ignores every notification.
+     */
+    HolidayListener NONE = new HolidayListener() {
+    };
+
+    /**
+     * Called after a {@link HolidayFactory} has been loaded or reloaded from a configuration file,
+     * resource, or snapshot.
+     *
+     * @param holidays the {@code HolidayFactory} that was loaded.
+     * @param nanos    how long the load took, in nanoseconds.
+     */
+    default void factoryLoaded(HolidayFactory holidays, long nanos) {
+    }
+
+    /**
+     * Called after {@link HolidayFactory#getHoliday(String)} has looked up a holiday.
+     *
+     * @param holidayName the name that was looked up.
+     * @param found       {@code true} if the holiday is supported.
+     * @param nanos       how long the lookup took, in nanoseconds.
+     */
+    default void holidayLookedUp(String holidayName, boolean found, long nanos) {
+    }
+
+    /**
+     * Called after the date of a single holiday has been calculated from its rule, for instance by
+     * {@link Holiday#getDate(int)}. Dates read from a precomputed range of years (see
+     * {@link HolidayFactory#precomputeYears(int, int)}) are not calculated and are not reported.
+     * Dates calculated in bulk are reported to {@link #datesCalculated(long, long)} instead.
+     *
+     * @param holiday the holiday whose date was calculated.
+     * @param year    the year.
+     * @param nanos   how long the calculation took, in nanoseconds.
+     */
+    default void dateCalculated(Holiday holiday, int year, long nanos) {
+    }
+
+    /**
+     * Called after the dates of every holiday in a set of holidays have been calculated at once:
+     * when a range of years is precomputed, and when a {@link HolidayCalendar} evaluates the holidays
+     * for a year that has not been precomputed. Each date is reported once, here or to
+     * {@link #dateCalculated(Holiday, int, long)}, never to both.
+     *
+     * @param count the number of dates calculated.
+     * @param nanos how long the calculation took, in nanoseconds.
+     */
+    default void datesCalculated(long count, long nanos) {
+    }
+
+    /**
+     * Called after a {@link HolidayCalendar} has built the index for a year, which it does the first
+     * time a date in that year is checked (or again after the year has been dropped from its cache).
+     * The dates evaluated for the index are reported to {@link #datesCalculated(long, long)}. Checks
+     * answered from an index that has already been built are not reported.
+     *
+     * @param year  the year.
+     * @param nanos how long building the index took, in nanoseconds, including evaluating the dates.
+     */
+    default void yearIndexBuilt(int year, long nanos) {
+    }
+
+    /**
+     * Called when a {@link HolidayFactoryCache} answers a request from the cache.
+     *
+     * @param resource the resource that was requested.
+     */
+    default void cacheHit(String resource) {
+    }
+
+    /**
+     * Called when a {@link HolidayFactoryCache} has to load a resource.
+     *
+     * @param resource the resource that was requested.
+     */
+    default void cacheMiss(String resource) {
+    }
+}
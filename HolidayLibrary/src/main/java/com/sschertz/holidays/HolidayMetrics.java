@@ -0,0 +1,189 @@
+package com.sschertz.holidays;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link HolidayListener} that counts events and records latency histograms, for monitoring how much
+ * time a service spends in the library. Counters are {@code LongAdder}s, so recording an event from
+ * many threads at once does not contend on a single memory location.
+ * <p>
+ * To turn on metrics for the whole process:
+ * <pre>
+ *     HolidayMetrics metrics = new HolidayMetrics();
+ *     HolidayFactory.setListener(metrics);
+ *     metrics.registerMBean();   // optional, to read the metrics with JMX
+ * </pre>
+ */
+public class HolidayMetrics implements HolidayListener, HolidayMetricsMXBean {
+
+    /**
+     * The name {@link #registerMBean()} registers the metrics under.
+     */
+    public static final String OBJECT_NAME = "com.sschertz.holidays:type=HolidayMetrics";
+
+    private final LatencyHistogram factoryLoads = new LatencyHistogram();
+    private final LatencyHistogram lookups = new LatencyHistogram();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LatencyHistogram calculations = new LatencyHistogram();
+    private final LongAdder bulkCalculations = new LongAdder();
+    private final LongAdder bulkCalculationNanos = new LongAdder();
+    private final LatencyHistogram yearIndexBuilds = new LatencyHistogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    // Filled in by the constructor and never changed after, so it is safe to read from any thread
+    private final Map<Holiday.RuleType, LatencyHistogram> calculationsByType = new EnumMap<>(Holiday.RuleType.class);
+
+    public HolidayMetrics() {
+        for (Holiday.RuleType type : Holiday.RuleType.values()) {
+            calculationsByType.put(type, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME}.
+     *
+     * @return the name the metrics were registered under.
+     * @throws JMException if the metrics cannot be registered (for instance, because another
+     *                     {@code HolidayMetrics} is already registered).
+     */
+    public ObjectName registerMBean() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public void factoryLoaded(HolidayFactory holidays, long nanos) {
+        factoryLoads.record(nanos);
+    }
+
+    @Override
+    public void holidayLookedUp(String holidayName, boolean found, long nanos) {
+        lookups.record(nanos);
+        if (!found) {
+            lookupMisses.increment();
+        }
+    }
+
+    @Override
+    public void dateCalculated(Holiday holiday, int year, long nanos) {
+        calculations.record(nanos);
+        calculationsByType.get(holiday.getType()).record(nanos);
+    }
+
+    @Override
+    public void datesCalculated(long count, long nanos) {
+        bulkCalculations.add(count);
+        bulkCalculationNanos.add(nanos);
+    }
+
+    @Override
+    public void yearIndexBuilt(int year, long nanos) {
+        yearIndexBuilds.record(nanos);
+    }
+
+    @Override
+    public void cacheHit(String resource) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss(String resource) {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public long getFactoryLoadCount() {
+        return factoryLoads.getCount();
+    }
+
+    @Override
+    public long getFactoryLoadTimeNanos() {
+        return factoryLoads.getTotalNanos();
+    }
+
+    @Override
+    public long getHolidayLookupCount() {
+        return lookups.getCount();
+    }
+
+    @Override
+    public long getHolidayLookupMissCount() {
+        return lookupMisses.sum();
+    }
+
+    @Override
+    public long getHolidayLookupP50Nanos() {
+        return lookups.getPercentile(50);
+    }
+
+    @Override
+    public long getHolidayLookupP99Nanos() {
+        return lookups.getPercentile(99);
+    }
+
+    @Override
+    public Map<String, Long> getDateCalculationCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<Holiday.RuleType, LatencyHistogram> entry : calculationsByType.entrySet()) {
+            counts.put(entry.getKey().name(), entry.getValue().getCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getDateCalculationTimeNanos() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (Map.Entry<Holiday.RuleType, LatencyHistogram> entry : calculationsByType.entrySet()) {
+            times.put(entry.getKey().name(), entry.getValue().getTotalNanos());
+        }
+        return times;
+    }
+
+    @Override
+    public long getDateCalculationP50Nanos() {
+        return calculations.getPercentile(50);
+    }
+
+    @Override
+    public long getDateCalculationP99Nanos() {
+        return calculations.getPercentile(99);
+    }
+
+    @Override
+    public long getBulkDateCalculationCount() {
+        return bulkCalculations.sum();
+    }
+
+    @Override
+    public long getBulkDateCalculationTimeNanos() {
+        return bulkCalculationNanos.sum();
+    }
+
+    @Override
+    public long getYearIndexBuildCount() {
+        return yearIndexBuilds.getCount();
+    }
+
+    @Override
+    public long getYearIndexBuildTimeNanos() {
+        return yearIndexBuilds.getTotalNanos();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+}
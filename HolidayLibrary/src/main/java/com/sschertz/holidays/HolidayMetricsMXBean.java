@@ -0,0 +1,55 @@
+package com.sschertz.holidays;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface for {@link HolidayMetrics}. All times are in nanoseconds; percentiles
+ * are accurate to within a factor of two.
+ */
+public interface HolidayMetricsMXBean {
+
+    long getFactoryLoadCount();
+
+    long getFactoryLoadTimeNanos();
+
+    long getHolidayLookupCount();
+
+    long getHolidayLookupMissCount();
+
+    long getHolidayLookupP50Nanos();
+
+    long getHolidayLookupP99Nanos();
+
+    /**
+     * Returns the number of dates of single holidays calculated from their rules, by rule type.
+     * Dates calculated in bulk are counted by {@link #getBulkDateCalculationCount()} instead.
+     */
+    Map<String, Long> getDateCalculationCounts();
+
+    /**
+     * Returns the total time spent calculating dates of single holidays, by rule type.
+     */
+    Map<String, Long> getDateCalculationTimeNanos();
+
+    long getDateCalculationP50Nanos();
+
+    long getDateCalculationP99Nanos();
+
+    /**
+     * Returns the number of dates calculated in bulk, when precomputing years and building year indexes.
+     */
+    long getBulkDateCalculationCount();
+
+    long getBulkDateCalculationTimeNanos();
+
+    /**
+     * Returns the number of year indexes built by {@link HolidayCalendar}s.
+     */
+    long getYearIndexBuildCount();
+
+    long getYearIndexBuildTimeNanos();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+}
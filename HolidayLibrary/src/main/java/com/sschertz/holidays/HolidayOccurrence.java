@@ -0,0 +1,78 @@
+package com.sschertz.holidays;
+
+import java.time.LocalDate;
+
+/**
+ * A single occurrence of a {@link Holiday} on a particular date.
+ * <p>
+ * {@code HolidayOccurrence} objects sort by date, and then alphabetically by the holiday's display name.
+ */
+public final class HolidayOccurrence implements Comparable<HolidayOccurrence> {
+
+    private final Holiday holiday;
+    private final long epochDay;
+    private LocalDate date;
+
+    HolidayOccurrence(Holiday holiday, long epochDay) {
+        this.holiday = holiday;
+        this.epochDay = epochDay;
+    }
+
+    /**
+     * Gets the {@link Holiday} that occurs.
+     *
+     * @return the {@link Holiday}.
+     */
+    public Holiday getHoliday() {
+        return holiday;
+    }
+
+    /**
+     * Gets the date of this occurrence.
+     *
+     * @return a {@code LocalDate} for the date the holiday occurs.
+     */
+    public LocalDate getDate() {
+        if (date == null) {
+            date = LocalDate.ofEpochDay(epochDay);
+        }
+        return date;
+    }
+
+    /**
+     * Gets the date of this occurrence as an epoch day (the number of days since 1970-01-01).
+     *
+     * @return the epoch day the holiday occurs.
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    @Override
+    public int compareTo(HolidayOccurrence o) {
+        int result = Long.compare(epochDay, o.epochDay);
+        return (result != 0) ? result : holiday.compareTo(o.holiday);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HolidayOccurrence)) return false;
+
+        HolidayOccurrence that = (HolidayOccurrence) o;
+        return epochDay == that.epochDay && holiday.equals(that.holiday);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * holiday.hashCode() + Long.hashCode(epochDay);
+    }
+
+    /**
+     * Returns the holiday's display name and date, such as "Christmas Day: 2016-12-25".
+     */
+    @Override
+    public String toString() {
+        return holiday.getDisplayName() + ": " + getDate();
+    }
+}
@@ -0,0 +1,317 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonObject.Member;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable, name-keyed set of compiled {@link Holiday} objects. The {@code supportedHolidays}
+ * section of a configuration file is compiled into a {@code HolidayRegistry} once, when the
+ * {@link HolidayFactory} is created. After that, looking up a holiday is a single hash lookup
+ * and always returns the same shared {@link Holiday} instance.
+ * <p>
+ * Some holidays depend on other holidays (see {@link DaysBeforeHoliday}). The registry orders holidays
+ * so that every holiday comes after the holiday it depends on, and rejects definitions that depend on an
+ * undefined holiday or that form a cycle. A holiday's ordinal (see {@link Holiday#getOrdinal()}) is its
+ * position in this order, which lets a whole year be evaluated in a single pass with each derived holiday
+ * reading its base holiday's already-computed date (see {@link #evaluateYear(int, long[])}).
+ * <p>
+ * {@link Holiday} objects are immutable, so sharing them between callers (and threads) is safe.
+ */
+final class HolidayRegistry {
+
+    private final Map<String, Holiday> holidays;
+    private final Holiday[] holidaysByOrdinal;
+    private final HolidayCalendar calendar;
+    private final HolidayCalendar observedCalendar;
+    private volatile HolidayYearTable yearTable;
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Compiles every holiday defined in {@code supportedHolidaysJson}.
+     *
+     * @param supportedHolidaysJson the {@code supportedHolidays} object from a configuration file.
+     * @throws IllegalArgumentException if a holiday definition is invalid.
+     */
+    HolidayRegistry(JsonObject supportedHolidaysJson) {
+        this(compile(supportedHolidaysJson));
+    }
+
+    /**
+     * Creates a registry from holidays that have already been compiled (for instance, read from a
+     * {@link HolidaySnapshot}).
+     *
+     * @param compiled the compiled holidays, keyed by name. Each holiday must come after any holiday
+     *                 it depends on.
+     */
+    HolidayRegistry(Map<String, Holiday> compiled) {
+        holidays = Collections.unmodifiableMap(new LinkedHashMap<>(compiled));
+        holidaysByOrdinal = compiled.values().toArray(new Holiday[compiled.size()]);
+        for (int ordinal = 0; ordinal < holidaysByOrdinal.length; ordinal++) {
+            holidaysByOrdinal[ordinal].register(this, ordinal);
+        }
+        calendar = new HolidayCalendar(holidaysByOrdinal);
+
+        List<Holiday> observed = new ArrayList<>();
+        for (Holiday holiday : holidaysByOrdinal) {
+            if (holiday instanceof StaticDate && ((StaticDate) holiday).isForceWeekday()) {
+                observed.add(holiday);
+            }
+        }
+        observedCalendar = new HolidayCalendar(observed.toArray(new Holiday[observed.size()]));
+    }
+
+    /**
+     * Returns the compiled {@link Holiday} for {@code holidayName}, or {@code null} if it is not defined.
+     */
+    Holiday get(String holidayName) {
+        return holidays.get(holidayName);
+    }
+
+    /**
+     * Tests whether a holiday named {@code holidayName} is defined.
+     */
+    boolean contains(String holidayName) {
+        return holidays.containsKey(holidayName);
+    }
+
+    /**
+     * Returns all compiled holidays. Each holiday appears after any holiday it depends on.
+     */
+    Collection<Holiday> values() {
+        return holidays.values();
+    }
+
+    /**
+     * Returns every compiled holiday keyed by name, in ordinal order.
+     */
+    Map<String, Holiday> asMap() {
+        return holidays;
+    }
+
+    int size() {
+        return holidays.size();
+    }
+
+    /**
+     * Returns a {@link HolidayCalendar} containing every holiday in this registry.
+     */
+    HolidayCalendar getCalendar() {
+        return calendar;
+    }
+
+    /**
+     * Returns a {@link HolidayCalendar} containing the holidays in this registry that are moved to a
+     * weekday when they fall on a weekend (the "observed" holidays).
+     */
+    HolidayCalendar getObservedCalendar() {
+        return observedCalendar;
+    }
+
+    /**
+     * Returns the {@code Clock} the holidays in this registry use to determine today's date.
+     */
+    Clock getClock() {
+        return clock;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Fills {@code row} with the epoch day of every holiday in this registry for {@code year},
+     * indexed by ordinal, or {@link Holiday#NO_DATE} for a holiday that does not occur that year.
+     * Each rule is evaluated once: holidays that depend on another holiday use the date already
+     * calculated for it. If {@code year} has been precomputed, the row is copied from the table instead.
+     *
+     * @param year the year.
+     * @param row  an array with at least {@link #size()} elements.
+     */
+    void evaluateYear(int year, long[] row) {
+        HolidayYearTable table = yearTable;
+        if (table != null && table.contains(year)) {
+            table.copyRow(year, row);
+            return;
+        }
+
+        HolidayListener listener = HolidayFactory.getListener();
+        long start = (listener == HolidayListener.NONE) ? 0 : System.nanoTime();
+        for (int ordinal = 0; ordinal < holidaysByOrdinal.length; ordinal++) {
+            row[ordinal] = holidaysByOrdinal[ordinal].calculateEpochDay(year, row, 0);
+        }
+        if (listener != HolidayListener.NONE) {
+            listener.datesCalculated(holidaysByOrdinal.length, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Precomputes the dates of every holiday from {@code firstYear} to {@code lastYear} (inclusive)
+     * and makes each {@link Holiday} in this registry read dates in that range from the new table.
+     *
+     * @return the new table.
+     */
+    HolidayYearTable precomputeYears(int firstYear, int lastYear) {
+        return install(HolidayYearTable.build(holidaysByOrdinal, firstYear, lastYear));
+    }
+
+    /**
+     * Same as {@link #precomputeYears(int, int)}, but computes the table in parallel in {@code pool}.
+     *
+     * @return the new table.
+     */
+    HolidayYearTable precomputeYears(int firstYear, int lastYear, ForkJoinPool pool) {
+        return install(HolidayYearTable.build(holidaysByOrdinal, firstYear, lastYear, pool));
+    }
+
+    /**
+     * Returns the table of precomputed dates, or {@code null} if no years have been precomputed.
+     */
+    HolidayYearTable getYearTable() {
+        return yearTable;
+    }
+
+    /**
+     * Makes each {@link Holiday} in this registry read dates from {@code table}, which must have been
+     * built for this registry's holidays (or read from a snapshot of them).
+     */
+    HolidayYearTable install(HolidayYearTable table) {
+        for (Holiday holiday : holidaysByOrdinal) {
+            holiday.setYearTable(table);
+        }
+        yearTable = table;
+        return table;
+    }
+
+    /**
+     * Returns the name of the holiday that {@code jsonRule} depends on, or {@code null} if it does not
+     * depend on another holiday.
+     */
+    static String getDependency(JsonObject jsonRule) {
+        Holiday.RuleType ruleType = Holiday.RuleType.valueOf(jsonRule.get("type").asString().toUpperCase());
+        if (ruleType == Holiday.RuleType.DAYS_BEFORE_HOLIDAY) {
+            return jsonRule.get("rule").asObject().get("holiday").asString();
+        }
+        return null;
+    }
+
+    /**
+     * Orders holiday names so that every holiday comes after the holiday it depends on. Apart from
+     * that, holidays stay in the order they were defined.
+     *
+     * @param dependencies the name of each holiday, mapped to the name of the holiday it depends on
+     *                     ({@code null} if it does not depend on another holiday).
+     * @return the holiday names, in dependency order.
+     * @throws IllegalArgumentException if a holiday depends on an undefined holiday, or if the
+     *                                  dependencies form a cycle.
+     */
+    static List<String> sortByDependency(Map<String, String> dependencies) {
+        List<String> sorted = new ArrayList<>(dependencies.size());
+        Set<String> done = new HashSet<>();
+
+        // Each holiday depends on at most one other holiday, so the dependencies of a holiday
+        // form a chain. Follow the chain until we reach a holiday that is already sorted, then
+        // add the chain in reverse.
+        for (String holidayName : dependencies.keySet()) {
+            List<String> chain = new ArrayList<>();
+            Set<String> onChain = new HashSet<>();
+
+            String current = holidayName;
+            while (current != null && !done.contains(current)) {
+                if (!dependencies.containsKey(current)) {
+                    // the holiday definition is invalid. It depends on a holiday
+                    // that has not been defined.
+                    throw new IllegalArgumentException("Holiday rule definition is invalid: '" +
+                            chain.get(chain.size() - 1) + "' depends on undefined holiday '" + current + "'");
+                }
+                if (!onChain.add(current)) {
+                    throw new IllegalArgumentException("Holiday rule definition is invalid: '" +
+                            current + "' depends on itself");
+                }
+                chain.add(current);
+                current = dependencies.get(current);
+            }
+
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                sorted.add(chain.get(i));
+                done.add(chain.get(i));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Compiles every holiday defined in {@code supportedHolidaysJson}, in dependency order.
+     */
+    private static Map<String, Holiday> compile(JsonObject supportedHolidaysJson) {
+
+        // Find which holiday (if any) each holiday depends on, so we can compile them in order
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        for (Member member : supportedHolidaysJson) {
+            dependencies.put(member.getName(), getDependency(member.getValue().asObject()));
+        }
+
+        Map<String, Holiday> compiled = new LinkedHashMap<>();
+        for (String holidayName : sortByDependency(dependencies)) {
+            compile(holidayName, supportedHolidaysJson.get(holidayName).asObject(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles the holiday named {@code holidayName} into {@code compiled}. Any holiday it depends on
+     * must already be compiled.
+     */
+    static void compile(String holidayName, JsonObject jsonRule, Map<String, Holiday> compiled) {
+
+        Holiday holiday;
+
+        // Get the ruleType so we know which object to create
+        Holiday.RuleType ruleType = Holiday.RuleType.valueOf(jsonRule.get("type").asString().toUpperCase());
+
+        switch (ruleType) {
+            case STATIC_DATE:
+                holiday = new StaticDate(jsonRule);
+                break;
+            case WEEK_IN_MONTH:
+                holiday = new WeekInMonth(jsonRule);
+                break;
+            case LAST_IN_MONTH:
+                holiday = new LastInMonth(jsonRule);
+                break;
+            case LAST_FULL_WEEK_OF_MONTH:
+                holiday = new LastFullWeekOfMonth(jsonRule);
+                break;
+            case FIRST_FULL_WEEK_OF_MONTH:
+                holiday = new FirstFullWeekOfMonth(jsonRule);
+                break;
+            case EASTER:
+                holiday = new Easter(jsonRule);
+                break;
+            case ORTHODOX_EASTER:
+                holiday = new OrthodoxEaster(jsonRule);
+                break;
+            case DAYS_BEFORE_HOLIDAY:
+                // This is a special case that depends on another holiday. Holidays are
+                // compiled in dependency order, so the other holiday is already compiled.
+
+                String otherHolidayString = jsonRule.get("rule").asObject().get("holiday").asString();
+                holiday = new DaysBeforeHoliday(jsonRule, compiled.get(otherHolidayString));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported holiday rule type: " + ruleType);
+        }
+
+        compiled.put(holidayName, holiday);
+    }
+}
@@ -0,0 +1,324 @@
+package com.sschertz.holidays;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary form of a compiled {@link HolidayFactory}. A snapshot holds the compiled holiday
+ * rules (and, optionally, the table of precomputed dates), so loading it skips parsing the JSON
+ * configuration file and resolving the dependencies between holidays.
+ * <p>
+ * Snapshots are normally generated at build time by running this class:
+ * <pre>
+ *     java com.sschertz.holidays.HolidaySnapshot us_holidays_default.json us_holidays.bin [firstYear lastYear]
+ * </pre>
+ * and loaded with {@link HolidayFactory#fromSnapshot(java.nio.file.Path)} or
+ * {@link HolidayFactory#fromSnapshot(ByteBuffer)}.
+ * <p>
+ * The format is big-endian:
+ * <ul>
+ * <li>the magic number {@code "HOLS"} and a format version</li>
+ * <li>the factory name, version, last updated and locale strings, each preceded by a flag because they
+ * may be missing from the configuration</li>
+ * <li>the number of holidays, then each holiday in ordinal order: its key, name, display name,
+ * {@link Holiday.RuleType} and rule-specific fields (see {@link Holiday#writeRule(DataOutput)})</li>
+ * <li>a flag for the year table, then its first and last year, padding to a multiple of four bytes from the
+ * start of the snapshot, and each date as an {@code int} epoch day, or {@link HolidayYearTable#NO_DATE_INT}
+ * for a year in which the holiday does not occur</li>
+ * </ul>
+ * Strings are written as an unsigned 16-bit length followed by that many UTF-8 bytes.
+ * <p>
+ * The year table is aligned so that it can be read in place. {@link HolidayFactory#fromSnapshot(java.nio.file.Path)}
+ * maps the file and reads the dates straight from the mapping instead of copying them to the heap, so
+ * processes that load the same snapshot file share one copy of the table in the page cache.
+ */
+public final class HolidaySnapshot {
+
+    private static final int MAGIC = 0x484F4C53; // "HOLS"
+    private static final short FORMAT_VERSION = 3;
+
+    private HolidaySnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a holiday configuration resource.
+     * <p>
+     * Arguments: the resource name, the output file, and optionally the first and last year
+     * to precompute and include in the snapshot.
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("Usage: HolidaySnapshot <resource> <output file> [firstYear lastYear]");
+            System.exit(1);
+        }
+
+        HolidayFactory holidays = HolidayFactory.fromResource(args[0]);
+        if (holidays == null) {
+            System.err.println("Resource not found: " + args[0]);
+            System.exit(1);
+        }
+        if (args.length == 4) {
+            holidays.precomputeYears(Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        }
+
+        write(holidays, Paths.get(args[1]));
+    }
+
+    /**
+     * Writes a snapshot of {@code holidays} to {@code out}. If {@code holidays} has precomputed a
+     * range of years, the table is included.
+     */
+    static void write(HolidayFactory holidays, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        HolidayRegistry registry = holidays.getRegistry();
+        HolidayYearTable table = registry.getYearTable();
+        if (table != null) {
+            // Check before writing anything, so an unusable table does not leave half a snapshot behind
+            checkDatesFit(table);
+        }
+
+        data.writeInt(MAGIC);
+        data.writeShort(FORMAT_VERSION);
+        writeOptionalString(data, holidays.getName());
+        writeOptionalString(data, holidays.getVersion());
+        writeOptionalString(data, holidays.getLastUpdated());
+        writeOptionalString(data, holidays.getLocale());
+
+        // The registry's values are in ordinal order, so each holiday is written after any
+        // holiday it depends on
+        Map<String, Holiday> holidayMap = registry.asMap();
+        data.writeInt(holidayMap.size());
+        for (Map.Entry<String, Holiday> entry : holidayMap.entrySet()) {
+            Holiday holiday = entry.getValue();
+            writeString(data, entry.getKey());
+            writeString(data, holiday.getName());
+            writeString(data, holiday.getDisplayName());
+            data.writeByte(holiday.getType().ordinal());
+            holiday.writeRule(data);
+        }
+
+        data.writeBoolean(table != null);
+        if (table != null) {
+            data.writeInt(table.getFirstYear());
+            data.writeInt(table.getLastYear());
+            while (data.size() % Integer.BYTES != 0) {
+                data.writeByte(0);
+            }
+            for (int year = table.getFirstYear(); year <= table.getLastYear(); year++) {
+                for (int ordinal = 0; ordinal < table.getHolidayCount(); ordinal++) {
+                    long epochDay = table.getEpochDay(year, ordinal);
+                    data.writeInt((epochDay == Holiday.NO_DATE) ? HolidayYearTable.NO_DATE_INT : (int) epochDay);
+                }
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Checks that every date in {@code table} can be stored as an {@code int} epoch day, other than the
+     * value reserved for {@link Holiday#NO_DATE}.
+     *
+     * @throws IOException if a date is too far from 1970 for a snapshot.
+     */
+    private static void checkDatesFit(HolidayYearTable table) throws IOException {
+        for (int year = table.getFirstYear(); year <= table.getLastYear(); year++) {
+            for (int ordinal = 0; ordinal < table.getHolidayCount(); ordinal++) {
+                long epochDay = table.getEpochDay(year, ordinal);
+                if (epochDay != Holiday.NO_DATE && (epochDay <= HolidayYearTable.NO_DATE_INT || epochDay > Integer.MAX_VALUE)) {
+                    throw new IOException("Precomputed year " + year + " is too far from 1970 to be stored in a holiday snapshot");
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of {@code holidays} to the file {@code path}. The snapshot is written to a
+     * temporary file in the same directory, which then replaces {@code path}, so a process that has
+     * mapped the previous file keeps reading a complete snapshot.
+     */
+    static void write(HolidayFactory holidays, Path path) throws IOException {
+        Path absolute = path.toAbsolutePath();
+        Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                write(holidays, out);
+            }
+            try {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads a snapshot from {@code buffer}, starting at its current position. If {@code inPlace} is
+     * {@code true}, the year table reads its dates from {@code buffer} rather than a copy, so the
+     * buffer must not be modified afterwards; otherwise the dates are copied to the heap.
+     *
+     * @throws IllegalArgumentException if {@code buffer} does not contain a valid snapshot.
+     */
+    static HolidayFactory read(ByteBuffer buffer, boolean inPlace) {
+        int start = buffer.position();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a holiday snapshot");
+            }
+            short formatVersion = buffer.getShort();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported holiday snapshot version: " + formatVersion);
+            }
+
+            String name = readOptionalString(buffer);
+            String version = readOptionalString(buffer);
+            String lastUpdated = readOptionalString(buffer);
+            String locale = readOptionalString(buffer);
+
+            int holidayCount = buffer.getInt();
+            Map<String, Holiday> compiled = new LinkedHashMap<>();
+            Holiday[] holidaysByOrdinal = new Holiday[holidayCount];
+            for (int ordinal = 0; ordinal < holidayCount; ordinal++) {
+                String key = readString(buffer);
+                holidaysByOrdinal[ordinal] = readHoliday(buffer, holidaysByOrdinal, ordinal);
+                compiled.put(key, holidaysByOrdinal[ordinal]);
+            }
+            HolidayRegistry registry = new HolidayRegistry(compiled);
+
+            if (buffer.get() != 0) {
+                int firstYear = buffer.getInt();
+                int lastYear = buffer.getInt();
+                while ((buffer.position() - start) % Integer.BYTES != 0) {
+                    buffer.get();
+                }
+
+                long size = ((long) lastYear - firstYear + 1) * holidayCount;
+                if (lastYear < firstYear || size > buffer.remaining() / Integer.BYTES) {
+                    throw new IllegalArgumentException("Holiday snapshot is truncated");
+                }
+                IntBuffer dates = buffer.slice().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+                dates.limit((int) size);
+                buffer.position(buffer.position() + (int) size * Integer.BYTES);
+
+                if (inPlace) {
+                    registry.install(HolidayYearTable.map(firstYear, lastYear, holidayCount, dates));
+                } else {
+                    long[] epochDays = new long[(int) size];
+                    for (int i = 0; i < epochDays.length; i++) {
+                        epochDays[i] = HolidayYearTable.fromInt(dates.get(i));
+                    }
+                    registry.install(HolidayYearTable.of(firstYear, lastYear, holidayCount, epochDays));
+                }
+            }
+
+            return new HolidayFactory(name, version, lastUpdated, locale, registry);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Holiday snapshot is truncated", e);
+        }
+    }
+
+    private static Holiday readHoliday(ByteBuffer buffer, Holiday[] holidaysByOrdinal, int ordinal) {
+        String name = readString(buffer);
+        String displayName = readString(buffer);
+
+        int type = buffer.get();
+        if (type < 0 || type >= Holiday.RuleType.values().length) {
+            throw new IllegalArgumentException("Holiday rule definition is invalid: unknown rule type " + type);
+        }
+
+        switch (Holiday.RuleType.values()[type]) {
+            case STATIC_DATE:
+                return new StaticDate(name, displayName, readMonth(buffer), buffer.get(), buffer.get() != 0);
+            case WEEK_IN_MONTH: {
+                Month month = readMonth(buffer);
+                int week = buffer.get();
+                DayOfWeek dayOfWeek = readDayOfWeek(buffer);
+                int afterFirst = buffer.get();
+                return new WeekInMonth(name, displayName, month, week, dayOfWeek,
+                        (afterFirst == 0) ? null : DayOfWeek.of(afterFirst));
+            }
+            case LAST_IN_MONTH:
+                return new LastInMonth(name, displayName, readMonth(buffer), readDayOfWeek(buffer));
+            case LAST_FULL_WEEK_OF_MONTH:
+                return new LastFullWeekOfMonth(name, displayName, readMonth(buffer), readDayOfWeek(buffer));
+            case FIRST_FULL_WEEK_OF_MONTH:
+                return new FirstFullWeekOfMonth(name, displayName, readMonth(buffer), readDayOfWeek(buffer));
+            case EASTER:
+                return new Easter(name, displayName);
+            case ORTHODOX_EASTER:
+                return new OrthodoxEaster(name, displayName);
+            case DAYS_BEFORE_HOLIDAY: {
+                int otherOrdinal = buffer.getInt();
+                if (otherOrdinal < 0 || otherOrdinal >= ordinal) {
+                    throw new IllegalArgumentException("Holiday rule definition is invalid: '" + name +
+                            "' depends on a holiday that has not been read");
+                }
+                int daysBefore = buffer.getInt();
+                String specialDescription = (buffer.get() != 0) ? readString(buffer) : null;
+                return new DaysBeforeHoliday(name, displayName, holidaysByOrdinal[otherOrdinal], daysBefore,
+                        specialDescription);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported holiday rule type: " + Holiday.RuleType.values()[type]);
+        }
+    }
+
+    private static Month readMonth(ByteBuffer buffer) {
+        return Month.of(buffer.get());
+    }
+
+    private static DayOfWeek readDayOfWeek(ByteBuffer buffer) {
+        return DayOfWeek.of(buffer.get());
+    }
+
+    /**
+     * Writes {@code value} as an unsigned 16-bit length followed by its UTF-8 bytes.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String is too long for a holiday snapshot");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeOptionalString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readOptionalString(ByteBuffer buffer) {
+        return (buffer.get() != 0) ? readString(buffer) : null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,254 @@
+package com.sschertz.holidays;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the holidays that fall on each day of a single year. This answers "which holidays
+ * fall on this date?" with a single array read instead of evaluating every holiday rule.
+ * <p>
+ * It also holds a 366-bit mask with one bit per day of the year, so "is this date a holiday?"
+ * is a single word load and bit test, and the year's occurrences in date order.
+ * <p>
+ * {@code HolidayYear} objects are immutable, and are built lazily and cached per year.
+ */
+final class HolidayYear {
+
+    private static final int MAX_DAYS_IN_YEAR = 366;
+
+    // Returned by nextHolidayDay when there are no more holidays in the year. Every other value,
+    // including -1 (1969-12-31), is a real epoch day.
+    static final long NO_MORE_HOLIDAYS = Long.MIN_VALUE;
+
+    private final int year;
+    private final long firstEpochDay;
+    private final long nextFirstEpochDay;
+    private final List<Holiday>[] holidaysByDay;
+    private final long[] mask;
+
+    // Every occurrence in the year, sorted by date (and then by name)
+    private final Holiday[] holidaysByDate;
+    private final long[] epochDaysByDate;
+
+    // Every holiday, once each, sorted by its date for this year (and then by name)
+    private final List<Holiday> holidaysInDateOrder;
+
+    private HolidayYear(int year, long firstEpochDay, long nextFirstEpochDay,
+                        List<Holiday>[] holidaysByDay, long[] mask,
+                        Holiday[] holidaysByDate, long[] epochDaysByDate, List<Holiday> holidaysInDateOrder) {
+        this.year = year;
+        this.firstEpochDay = firstEpochDay;
+        this.nextFirstEpochDay = nextFirstEpochDay;
+        this.holidaysByDay = holidaysByDay;
+        this.mask = mask;
+        this.holidaysByDate = holidaysByDate;
+        this.epochDaysByDate = epochDaysByDate;
+        this.holidaysInDateOrder = holidaysInDateOrder;
+    }
+
+    /**
+     * Builds the index for {@code year} from the provided {@code holidays}.
+     * <p>
+     * An observed holiday can fall in the calendar year before or after the year it belongs to
+     * (see {@link StaticDate}), so occurrences from the neighbouring years are included if they
+     * fall within {@code year}, and occurrences that fall outside {@code year} are left out, as are
+     * holidays that do not occur in a year at all ({@link Holiday#NO_DATE}).
+     *
+     * @param holidays the holidays to include in the index.
+     * @param year     the year.
+     * @return a new {@code HolidayYear}.
+     */
+    static HolidayYear build(Holiday[] holidays, int year) {
+        long firstEpochDay = DateUtilities.toEpochDay(year, 1, 1);
+        long nextFirstEpochDay = DateUtilities.toEpochDay(year + 1, 1, 1);
+
+        // Evaluate each registry once per year, so a holiday that depends on another
+        // holiday reuses that holiday's date instead of calculating it again
+        Map<HolidayRegistry, long[][]> rows = new IdentityHashMap<>(2);
+
+        @SuppressWarnings("unchecked")
+        List<Holiday>[] holidaysByDay = (List<Holiday>[]) new List<?>[MAX_DAYS_IN_YEAR];
+        long[] mask = new long[(MAX_DAYS_IN_YEAR + 63) / 64];
+        for (Holiday holiday : holidays) {
+            long[][] registryRows = rows.computeIfAbsent(holiday.getRegistry(), registry -> {
+                long[][] yearRows = new long[3][registry.size()];
+                for (int i = 0; i < yearRows.length; i++) {
+                    registry.evaluateYear(year - 1 + i, yearRows[i]);
+                }
+                return yearRows;
+            });
+            for (long[] row : registryRows) {
+                long epochDay = row[holiday.getOrdinal()];
+                if (epochDay < firstEpochDay || epochDay >= nextFirstEpochDay) {
+                    continue;
+                }
+
+                int day = (int) (epochDay - firstEpochDay);
+                mask[day >>> 6] |= 1L << day;
+                if (holidaysByDay[day] == null) {
+                    holidaysByDay[day] = new ArrayList<>(1);
+                }
+                holidaysByDay[day].add(holiday);
+            }
+        }
+
+        List<Holiday> none = Collections.emptyList();
+        List<Holiday> byDate = new ArrayList<>();
+        for (int day = 0; day < MAX_DAYS_IN_YEAR; day++) {
+            if (holidaysByDay[day] == null) {
+                holidaysByDay[day] = none;
+            } else {
+                // Sort holidays that share a date by name, so the results are always in the same order
+                Holiday[] sameDay = holidaysByDay[day].toArray(new Holiday[holidaysByDay[day].size()]);
+                Arrays.sort(sameDay);
+                holidaysByDay[day] = Collections.unmodifiableList(Arrays.asList(sameDay));
+                byDate.addAll(holidaysByDay[day]);
+            }
+        }
+
+        Holiday[] holidaysByDate = byDate.toArray(new Holiday[byDate.size()]);
+        long[] epochDaysByDate = new long[holidaysByDate.length];
+        int index = 0;
+        for (int day = 0; day < MAX_DAYS_IN_YEAR; day++) {
+            for (int i = 0; i < holidaysByDay[day].size(); i++) {
+                epochDaysByDate[index++] = firstEpochDay + day;
+            }
+        }
+
+        // Sort by the dates that have already been evaluated, rather than asking each holiday again
+        long[] dates = new long[holidays.length];
+        List<Integer> order = new ArrayList<>(holidays.length);
+        for (int i = 0; i < holidays.length; i++) {
+            dates[i] = rows.get(holidays[i].getRegistry())[1][holidays[i].getOrdinal()];
+            if (dates[i] != Holiday.NO_DATE) {
+                order.add(i);
+            }
+        }
+        order.sort((first, second) -> {
+            int result = Long.compare(dates[first], dates[second]);
+            return (result != 0) ? result : holidays[first].compareTo(holidays[second]);
+        });
+        Holiday[] inDateOrder = new Holiday[order.size()];
+        for (int i = 0; i < inDateOrder.length; i++) {
+            inDateOrder[i] = holidays[order.get(i)];
+        }
+
+        return new HolidayYear(year, firstEpochDay, nextFirstEpochDay, holidaysByDay, mask,
+                holidaysByDate, epochDaysByDate, Collections.unmodifiableList(Arrays.asList(inDateOrder)));
+    }
+
+    int getYear() {
+        return year;
+    }
+
+    /**
+     * Returns every holiday in the index that occurs for this year, sorted by date. Unlike the
+     * occurrences, this includes each holiday exactly once, even if it is observed in a
+     * neighbouring calendar year.
+     */
+    List<Holiday> getHolidaysInDateOrder() {
+        return holidaysInDateOrder;
+    }
+
+    /**
+     * Returns the number of holiday occurrences in this year.
+     */
+    int size() {
+        return holidaysByDate.length;
+    }
+
+    /**
+     * Returns the holiday for the occurrence at {@code index}, in date order.
+     */
+    Holiday getHolidayByDate(int index) {
+        return holidaysByDate[index];
+    }
+
+    /**
+     * Returns the epoch day of the occurrence at {@code index}, in date order.
+     */
+    long getEpochDayByDate(int index) {
+        return epochDaysByDate[index];
+    }
+
+    /**
+     * Returns the index (in date order) of the first occurrence on or after {@code epochDay};
+     * {@link #size()} if there are none.
+     */
+    int indexOnOrAfter(long epochDay) {
+        int low = 0;
+        int high = epochDaysByDate.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDaysByDate[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Tests whether {@code epochDay} is within this year.
+     */
+    boolean contains(long epochDay) {
+        return epochDay >= firstEpochDay && epochDay < nextFirstEpochDay;
+    }
+
+    /**
+     * Tests whether any holiday falls on the specified epoch day, which must be within this year.
+     */
+    boolean isHoliday(long epochDay) {
+        int day = (int) (epochDay - firstEpochDay);
+        return (mask[day >>> 6] & (1L << day)) != 0;
+    }
+
+    /**
+     * Returns the first epoch day on or after {@code epochDay} (which must be within this year) that
+     * has at least one holiday, or {@link #NO_MORE_HOLIDAYS} if there are no more holidays in this year.
+     */
+    long nextHolidayDay(long epochDay) {
+        int day = (int) (epochDay - firstEpochDay);
+        int word = day >>> 6;
+        long bits = mask[word] & (-1L << day);
+        while (bits == 0) {
+            if (++word == mask.length) {
+                return NO_MORE_HOLIDAYS;
+            }
+            bits = mask[word];
+        }
+        return firstEpochDay + (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the number of days with at least one holiday before {@code epochDay}. The epoch day
+     * may be anywhere from the first day of this year to the first day of the next year.
+     */
+    int countHolidayDaysBefore(long epochDay) {
+        int day = (int) (epochDay - firstEpochDay);
+        int word = day >>> 6;
+        int count = 0;
+        for (int i = 0; i < word; i++) {
+            count += Long.bitCount(mask[i]);
+        }
+        if (word < mask.length) {
+            count += Long.bitCount(mask[word] & ((1L << day) - 1));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the holidays that fall on the specified epoch day, which must be within this year.
+     *
+     * @param epochDay the epoch day of a date within this year.
+     * @return an unmodifiable {@code List} of the holidays on that date; empty if there are none.
+     */
+    List<Holiday> getHolidaysOn(long epochDay) {
+        return holidaysByDay[(int) (epochDay - firstEpochDay)];
+    }
+}
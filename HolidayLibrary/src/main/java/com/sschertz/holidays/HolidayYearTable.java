@@ -0,0 +1,293 @@
+package com.sschertz.holidays;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A dense table of precomputed holiday dates for a bounded range of years. The table holds the
+ * epoch day of every holiday in a {@link HolidayRegistry} for every year from {@code firstYear}
+ * to {@code lastYear} (inclusive), so looking up a date inside the range is a single array read.
+ * <p>
+ * Dates are stored one row per year, with one column per holiday ordinal
+ * (see {@link Holiday#getOrdinal()}).
+ * <p>
+ * Tables are immutable once built. Large tables can be built in parallel (see
+ * {@link #build(Holiday[], int, int, ForkJoinPool)}); every holiday rule is a pure function of
+ * the year, so the result is the same as building the table sequentially.
+ * <p>
+ * There are two kinds of table: tables built or copied into a {@code long} array on the heap, and
+ * tables that read the dates in place from a memory-mapped {@link HolidaySnapshot} (see
+ * {@link #map(int, int, int, IntBuffer)}). A mapped table uses no heap for the dates, and every process
+ * that maps the same snapshot file shares a single copy of it in the operating system's page cache.
+ * A year in which a holiday does not occur holds {@link Holiday#NO_DATE}, which is stored in an
+ * {@code int} table as {@link #NO_DATE_INT}.
+ */
+abstract class HolidayYearTable {
+
+    /**
+     * Stored in an {@code int} table (see {@link #map(int, int, int, IntBuffer)}) in place of
+     * {@link Holiday#NO_DATE}. No other date may be stored as this value.
+     */
+    static final int NO_DATE_INT = Integer.MIN_VALUE;
+
+    private final int firstYear;
+    private final int lastYear;
+    private final int holidayCount;
+
+    private HolidayYearTable(int firstYear, int lastYear, int holidayCount) {
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.holidayCount = holidayCount;
+    }
+
+    /**
+     * Builds a table for the provided {@code holidays}, which must be indexed by ordinal.
+     *
+     * @param holidays  all holidays in a registry, indexed by {@link Holiday#getOrdinal()}.
+     * @param firstYear the first year to precompute.
+     * @param lastYear  the last year to precompute (inclusive).
+     * @return a new {@code HolidayYearTable}.
+     */
+    static HolidayYearTable build(Holiday[] holidays, int firstYear, int lastYear) {
+        long[] epochDays = allocate(holidays, firstYear, lastYear);
+        HolidayListener listener = HolidayFactory.getListener();
+        long start = (listener == HolidayListener.NONE) ? 0 : System.nanoTime();
+        fill(holidays, epochDays, firstYear, firstYear, lastYear);
+        if (listener != HolidayListener.NONE) {
+            listener.datesCalculated(epochDays.length, System.nanoTime() - start);
+        }
+
+        return new HeapTable(firstYear, lastYear, holidays.length, epochDays);
+    }
+
+    /**
+     * Builds a table for the provided {@code holidays}, splitting the range of years across the
+     * threads in {@code pool}. Each thread writes a separate block of rows in the same
+     * preallocated array.
+     *
+     * @param holidays  all holidays in a registry, indexed by {@link Holiday#getOrdinal()}.
+     * @param firstYear the first year to precompute.
+     * @param lastYear  the last year to precompute (inclusive).
+     * @param pool      the {@code ForkJoinPool} to compute the table in.
+     * @return a new {@code HolidayYearTable}.
+     */
+    static HolidayYearTable build(Holiday[] holidays, int firstYear, int lastYear, ForkJoinPool pool) {
+        long[] epochDays = allocate(holidays, firstYear, lastYear);
+        HolidayListener listener = HolidayFactory.getListener();
+        long start = (listener == HolidayListener.NONE) ? 0 : System.nanoTime();
+        pool.invoke(new FillTask(holidays, epochDays, firstYear, firstYear, lastYear));
+        if (listener != HolidayListener.NONE) {
+            listener.datesCalculated(epochDays.length, System.nanoTime() - start);
+        }
+
+        return new HeapTable(firstYear, lastYear, holidays.length, epochDays);
+    }
+
+    /**
+     * Creates a table from dates that have already been computed (for instance, copied from a
+     * {@link HolidaySnapshot}).
+     *
+     * @param firstYear    the first year in the table.
+     * @param lastYear     the last year in the table (inclusive).
+     * @param holidayCount the number of holidays in each row.
+     * @param epochDays    the dates, one row per year with one column per holiday ordinal.
+     * @return a new {@code HolidayYearTable}.
+     */
+    static HolidayYearTable of(int firstYear, int lastYear, int holidayCount, long[] epochDays) {
+        if (lastYear < firstYear || epochDays.length != ((long) lastYear - firstYear + 1) * holidayCount) {
+            throw new IllegalArgumentException("Year table does not match the year range");
+        }
+        return new HeapTable(firstYear, lastYear, holidayCount, epochDays);
+    }
+
+    /**
+     * Creates a table that reads its dates from {@code epochDays} in place, for instance a view of a
+     * memory-mapped {@link HolidaySnapshot}. The dates are never copied, so the buffer must not be
+     * modified while the table is in use.
+     *
+     * @param firstYear    the first year in the table.
+     * @param lastYear     the last year in the table (inclusive).
+     * @param holidayCount the number of holidays in each row.
+     * @param epochDays    the dates, one row per year with one column per holiday ordinal, from
+     *                     index 0 to the limit of the buffer.
+     * @return a new {@code HolidayYearTable}.
+     */
+    static HolidayYearTable map(int firstYear, int lastYear, int holidayCount, IntBuffer epochDays) {
+        if (lastYear < firstYear || epochDays.limit() != ((long) lastYear - firstYear + 1) * holidayCount) {
+            throw new IllegalArgumentException("Year table does not match the year range");
+        }
+        return new MappedTable(firstYear, lastYear, holidayCount, epochDays);
+    }
+
+    private static long[] allocate(Holiday[] holidays, int firstYear, int lastYear) {
+        if (firstYear > lastYear) {
+            throw new IllegalArgumentException("firstYear must not be after lastYear");
+        }
+
+        long size = ((long) lastYear - firstYear + 1) * holidays.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Year range is too large to precompute");
+        }
+        return new long[(int) size];
+    }
+
+    /**
+     * Calculates the rows for {@code fromYear} to {@code toYear} (inclusive) of a table that
+     * starts at {@code tableFirstYear}. Holidays are evaluated in ordinal order, so a holiday that
+     * depends on another holiday reads that holiday's date from the row instead of calculating it again.
+     */
+    private static void fill(Holiday[] holidays, long[] epochDays, int tableFirstYear, int fromYear, int toYear) {
+        int rowOffset = (fromYear - tableFirstYear) * holidays.length;
+        for (int year = fromYear; year <= toYear; year++) {
+            for (int ordinal = 0; ordinal < holidays.length; ordinal++) {
+                epochDays[rowOffset + ordinal] = holidays[ordinal].calculateEpochDay(year, epochDays, rowOffset);
+            }
+            rowOffset += holidays.length;
+        }
+    }
+
+    int getFirstYear() {
+        return firstYear;
+    }
+
+    int getLastYear() {
+        return lastYear;
+    }
+
+    int getHolidayCount() {
+        return holidayCount;
+    }
+
+    /**
+     * Tests whether {@code year} is within the precomputed range.
+     */
+    boolean contains(int year) {
+        return year >= firstYear && year <= lastYear;
+    }
+
+    /**
+     * Tests whether the dates are read in place from a buffer rather than held on the heap.
+     */
+    abstract boolean isMapped();
+
+    /**
+     * Returns the precomputed epoch day for the holiday with the specified {@code ordinal}.
+     * The {@code year} must be within the precomputed range.
+     */
+    abstract long getEpochDay(int year, int ordinal);
+
+    /**
+     * Copies the dates for {@code year}, which must be within the precomputed range, into {@code row}.
+     */
+    abstract void copyRow(int year, long[] row);
+
+    /**
+     * Returns the index of the first date of {@code year}'s row.
+     */
+    final int rowOffset(int year) {
+        return (year - firstYear) * holidayCount;
+    }
+
+    /**
+     * Converts a date stored in an {@code int} table back to an epoch day.
+     */
+    static long fromInt(int storedEpochDay) {
+        return (storedEpochDay == NO_DATE_INT) ? Holiday.NO_DATE : storedEpochDay;
+    }
+
+    /**
+     * A table held in a {@code long} array on the heap.
+     */
+    private static final class HeapTable extends HolidayYearTable {
+
+        private final long[] epochDays;
+
+        HeapTable(int firstYear, int lastYear, int holidayCount, long[] epochDays) {
+            super(firstYear, lastYear, holidayCount);
+            this.epochDays = epochDays;
+        }
+
+        @Override
+        boolean isMapped() {
+            return false;
+        }
+
+        @Override
+        long getEpochDay(int year, int ordinal) {
+            return epochDays[rowOffset(year) + ordinal];
+        }
+
+        @Override
+        void copyRow(int year, long[] row) {
+            System.arraycopy(epochDays, rowOffset(year), row, 0, getHolidayCount());
+        }
+    }
+
+    /**
+     * A table read in place from a buffer of {@code int} epoch days. Only absolute reads are used, so
+     * the buffer's position is never changed and the table can be read from any number of threads.
+     */
+    private static final class MappedTable extends HolidayYearTable {
+
+        private final IntBuffer epochDays;
+
+        MappedTable(int firstYear, int lastYear, int holidayCount, IntBuffer epochDays) {
+            super(firstYear, lastYear, holidayCount);
+            this.epochDays = epochDays;
+        }
+
+        @Override
+        boolean isMapped() {
+            return true;
+        }
+
+        @Override
+        long getEpochDay(int year, int ordinal) {
+            return fromInt(epochDays.get(rowOffset(year) + ordinal));
+        }
+
+        @Override
+        void copyRow(int year, long[] row) {
+            int offset = rowOffset(year);
+            for (int ordinal = 0; ordinal < getHolidayCount(); ordinal++) {
+                row[ordinal] = fromInt(epochDays.get(offset + ordinal));
+            }
+        }
+    }
+
+    /**
+     * Fills a block of rows, splitting it in half until it is small enough to calculate directly.
+     */
+    private static final class FillTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final int YEARS_PER_TASK = 64;
+
+        private final Holiday[] holidays;
+        private final long[] epochDays;
+        private final int tableFirstYear;
+        private final int fromYear;
+        private final int toYear;
+
+        FillTask(Holiday[] holidays, long[] epochDays, int tableFirstYear, int fromYear, int toYear) {
+            this.holidays = holidays;
+            this.epochDays = epochDays;
+            this.tableFirstYear = tableFirstYear;
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+        }
+
+        @Override
+        protected void compute() {
+            if (toYear - fromYear < YEARS_PER_TASK) {
+                fill(holidays, epochDays, tableFirstYear, fromYear, toYear);
+            } else {
+                int middle = fromYear + (toYear - fromYear) / 2;
+                invokeAll(new FillTask(holidays, epochDays, tableFirstYear, fromYear, middle),
+                        new FillTask(holidays, epochDays, tableFirstYear, middle + 1, toYear));
+            }
+        }
+    }
+}
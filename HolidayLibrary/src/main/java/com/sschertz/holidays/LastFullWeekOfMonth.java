@@ -2,8 +2,9 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -27,23 +28,36 @@ class LastFullWeekOfMonth extends Holiday {
     LastFullWeekOfMonth(JsonObject holidayDefJson) {
         super(holidayDefJson);
 
-        month = Month.valueOf(getRule().get("month").asString().toUpperCase());
-        dayOfWeek = DayOfWeek.valueOf(getRule().get("dayOfWeek").asString().toUpperCase());
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        month = Month.valueOf(rule.get("month").asString().toUpperCase());
+        dayOfWeek = DayOfWeek.valueOf(rule.get("dayOfWeek").asString().toUpperCase());
+    }
+
+    LastFullWeekOfMonth(String name, String displayName, Month month, DayOfWeek dayOfWeek) {
+        super(name, displayName, RuleType.LAST_FULL_WEEK_OF_MONTH);
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
     }
 
 
     @Override
-    public LocalDate getDate(int year) {
+    long calculateEpochDay(int year) {
 
-        // get the last sunday in the month (need to revise to then calculate the day we actually want.
+        // get the Sunday that starts the last full week, then the day we actually want in that week.
 
-        LocalDate startOfLastWeek = DateUtilities.getLastFullWeekOfMonth(year, month);
+        long startOfLastWeek = DateUtilities.getLastFullWeekOfMonthAsEpochDay(year, month);
 
-        return DateUtilities.getSpecifiedDayInWeek(startOfLastWeek, dayOfWeek);
+        return DateUtilities.getSpecifiedDayInWeekAsEpochDay(startOfLastWeek, dayOfWeek);
 
 
     }
 
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        out.writeByte(month.getValue());
+        out.writeByte(dayOfWeek.getValue());
+    }
+
     @Override
     public String toString() {
 
@@ -2,8 +2,9 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -23,15 +24,33 @@ final class LastInMonth extends Holiday {
         super(holidayDefJson);
 
         // Set the rule-specific fields for this subclass
-        month = Month.valueOf(getRule().get("month").asString().toUpperCase());
-        dayOfWeek = DayOfWeek.valueOf(getRule().asObject().get("dayOfWeek").asString().toUpperCase());
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        month = Month.valueOf(rule.get("month").asString().toUpperCase());
+        dayOfWeek = DayOfWeek.valueOf(rule.get("dayOfWeek").asString().toUpperCase());
+    }
+
+    LastInMonth(String name, String displayName, Month month, DayOfWeek dayOfWeek) {
+        super(name, displayName, RuleType.LAST_IN_MONTH);
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
     }
 
     @Override
-    public LocalDate getDate(int year) {
+    long calculateEpochDay(int year) {
+
+        return DateUtilities.getLastSpecifiedDayInMonthAsEpochDay(year, month, dayOfWeek);
+
+    }
 
-        return DateUtilities.getLastSpecifiedDayInMonth(year, month, dayOfWeek);
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        out.writeByte(month.getValue());
+        out.writeByte(dayOfWeek.getValue());
+    }
 
+    @Override
+    String getRecurrenceRule() {
+        return "FREQ=YEARLY;BYMONTH=" + month.getValue() + ";BYDAY=-1" + dayOfWeek.name().substring(0, 2);
     }
 
     @Override
@@ -0,0 +1,81 @@
+package com.sschertz.holidays;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies with one bucket per power of two. Bucket {@code i} counts
+ * latencies from 2<sup>i-1</sup> up to 2<sup>i</sup> - 1 nanoseconds (bucket 0 counts zero), so
+ * recording a latency is a leading-zero count and a {@code LongAdder} increment.
+ * <p>
+ * Percentiles are reported as the upper bound of the bucket they fall in, so they are accurate to
+ * within a factor of two. That is enough to tell a 100 ns lookup from a 10 us one.
+ */
+final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the number of latencies recorded in each bucket.
+     */
+    long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the upper bound, in nanoseconds, of the bucket containing the specified percentile,
+     * or 0 if nothing has been recorded.
+     *
+     * @param percentile a percentile between 0 and 100.
+     */
+    long getPercentile(double percentile) {
+        long[] counts = getBuckets();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return (i == 0) ? 0 : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
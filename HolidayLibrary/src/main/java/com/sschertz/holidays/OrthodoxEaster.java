@@ -0,0 +1,32 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.JsonObject;
+
+/**
+ * Orthodox Easter Sunday is calculated the same way as Easter was before the Gregorian reform: the first
+ * Sunday after the first full moon on or after March 21 of the Julian calendar. The date is returned in
+ * the Gregorian calendar, so between 1900 and 2099 it is 13 days later than the Julian date.
+ *
+ * The dates from 1583 to 4099 are tabulated (see {@link Computus}); other years use Meeus's Julian algorithm.
+ */
+class OrthodoxEaster extends Holiday {
+
+    OrthodoxEaster(JsonObject holidayDefJson) {
+        // No holiday-specific rules, we only need the year.
+        super(holidayDefJson);
+    }
+
+    OrthodoxEaster(String name, String displayName) {
+        super(name, displayName, RuleType.ORTHODOX_EASTER);
+    }
+
+    @Override
+    long calculateEpochDay(int year) {
+        return Computus.orthodox(year);
+    }
+
+    @Override
+    public String toString() {
+        return "Orthodox Easter Sunday occurs on the first Sunday after the first full moon of spring in the Julian calendar.";
+    }
+}
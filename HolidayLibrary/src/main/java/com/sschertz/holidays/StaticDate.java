@@ -3,7 +3,9 @@ package com.sschertz.holidays;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 
-import java.time.LocalDate;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.DayOfWeek;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -15,8 +17,12 @@ import java.util.Locale;
  * A {@code StaticDate} holiday CAN be defined with a special {@code forceWeekday}
  * flag. This is typically used to calcuate when static holiday is actully observed
  * if it falls on a weekend. For instance, if Christmas Day falls on a Sunday, it
- * is normally observed (for the purposes of days off) on Monday. Note that
- * this functionality is not yet implemented.
+ * is normally observed (for the purposes of days off) on Monday. A holiday that falls
+ * on a Saturday is observed on the Friday before.
+ * <p>
+ * Note that this means an observed holiday can fall in a different calendar year. For
+ * instance, when New Year's Day falls on a Saturday, it is observed on December 31 of
+ * the previous year.
  */
 final class StaticDate extends Holiday {
 
@@ -28,19 +34,76 @@ final class StaticDate extends Holiday {
         super(holidayDefJson);
 
         // Set the rule-specific fields for this subclass
-        month = Month.valueOf(getRule().get("month").asString().toUpperCase());
-        day = getRule().get("day").asInt();
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        month = Month.valueOf(rule.get("month").asString().toUpperCase());
+        day = rule.get("day").asInt();
+        checkDay();
 
-        JsonValue weekday = holidayDefJson.get("rule").asObject().get("forceWeekday");
+        JsonValue weekday = rule.get("forceWeekday");
         forceWeekday = (weekday != null) && weekday.asBoolean();
     }
 
+    StaticDate(String name, String displayName, Month month, int day, boolean forceWeekday) {
+        super(name, displayName, RuleType.STATIC_DATE);
+        this.month = month;
+        this.day = day;
+        this.forceWeekday = forceWeekday;
+        checkDay();
+    }
+
+    // A day that never occurs (February 30) would make every search for the next occurrence run forever
+    private void checkDay() {
+        if (day < 1 || day > month.maxLength()) {
+            throw new IllegalArgumentException("Invalid date '" + month + " " + day + "' for holiday '" + getName() + "'");
+        }
+    }
+
+    /**
+     * Tests whether this holiday is moved to the closest weekday when it falls on a weekend.
+     *
+     * @return {@code true} if the holiday is observed on a weekday.
+     */
+    boolean isForceWeekday() {
+        return forceWeekday;
+    }
+
     @Override
-    public LocalDate getDate(int year) {
-        //TODO: Implement handling of the forceWeekday rule!
+    long calculateEpochDay(int year) {
 
-        return LocalDate.of(year, month, day);
+        // February 29 only occurs in leap years
+        if (day > month.length(DateUtilities.isLeapYear(year))) {
+            return NO_DATE;
+        }
+        long date = DateUtilities.toEpochDay(year, month.getValue(), day);
 
+        if (forceWeekday) {
+            // Saturday is observed on the Friday before, Sunday on the Monday after
+            int dayOfWeek = DateUtilities.getDayOfWeekValue(date);
+            if (dayOfWeek == DayOfWeek.SATURDAY.getValue()) {
+                return date - 1;
+            } else if (dayOfWeek == DayOfWeek.SUNDAY.getValue()) {
+                return date + 1;
+            }
+        }
+        return date;
+
+    }
+
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        out.writeByte(month.getValue());
+        out.writeByte(day);
+        out.writeBoolean(forceWeekday);
+    }
+
+    @Override
+    String getRecurrenceRule() {
+        // Observed dates move to a weekday. February 29 is fine: a BYMONTHDAY that does not exist
+        // in a year is skipped, so the event only recurs in leap years, like the holiday.
+        if (forceWeekday) {
+            return null;
+        }
+        return "FREQ=YEARLY;BYMONTH=" + month.getValue() + ";BYMONTHDAY=" + day;
     }
 
     @Override
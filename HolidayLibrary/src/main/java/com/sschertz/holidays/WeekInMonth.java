@@ -2,8 +2,9 @@ package com.sschertz.holidays;
 
 import com.eclipsesource.json.JsonObject;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.time.Month;
 import java.time.format.TextStyle;
 import java.util.Locale;
@@ -28,18 +29,28 @@ class WeekInMonth extends Holiday {
         // Set the rule-specific fields for this subclass. Should be able to get
         // the rule json from the superclass.
 
-        week = getRule().get("week").asInt();
-        month = Month.valueOf(getRule().get("month").asString().toUpperCase());
-        dayOfWeek = DayOfWeek.valueOf(getRule().get("dayOfWeek").asString().toUpperCase());
+        JsonObject rule = holidayDefJson.get("rule").asObject();
+        week = rule.get("week").asInt();
+        month = Month.valueOf(rule.get("month").asString().toUpperCase());
+        dayOfWeek = DayOfWeek.valueOf(rule.get("dayOfWeek").asString().toUpperCase());
 
-        if (getRule().get("afterFirst") != null)
-            afterFirst = DayOfWeek.valueOf(getRule().get("afterFirst").asString().toUpperCase());
+        if (rule.get("afterFirst") != null)
+            afterFirst = DayOfWeek.valueOf(rule.get("afterFirst").asString().toUpperCase());
+    }
+
+    WeekInMonth(String name, String displayName, Month month, int week, DayOfWeek dayOfWeek,
+                DayOfWeek afterFirst) {
+        super(name, displayName, RuleType.WEEK_IN_MONTH);
+        this.month = month;
+        this.week = week;
+        this.dayOfWeek = dayOfWeek;
+        this.afterFirst = afterFirst;
     }
 
     @Override
-    public LocalDate getDate(int year) {
+    long calculateEpochDay(int year) {
 
-        LocalDate date = DateUtilities.getSpecifiedDayInWeekOfMonth(year, month, week, dayOfWeek);
+        long date = DateUtilities.getSpecifiedDayInWeekOfMonthAsEpochDay(year, month, week, dayOfWeek);
 
         if (afterFirst == null){
             return date;
@@ -47,12 +58,29 @@ class WeekInMonth extends Holiday {
 
         // only want to return date if it is AFTER the first day specified by afterFirst.
 
-        LocalDate afterFirstDate = DateUtilities.getSpecifiedDayInWeekOfMonth(year, month, 1, afterFirst);
-        if (date.isAfter(afterFirstDate)) {
+        long afterFirstDate = DateUtilities.getSpecifiedDayInWeekOfMonthAsEpochDay(year, month, 1, afterFirst);
+        if (date > afterFirstDate) {
             return date;
         } else {
-            return date.plusDays(NUM_DAYS_IN_WEEK);
+            return date + NUM_DAYS_IN_WEEK;
+        }
+    }
+
+    @Override
+    void writeRule(DataOutput out) throws IOException {
+        out.writeByte(month.getValue());
+        out.writeByte(week);
+        out.writeByte(dayOfWeek.getValue());
+        out.writeByte(afterFirst == null ? 0 : afterFirst.getValue());
+    }
+
+    @Override
+    String getRecurrenceRule() {
+        // A fifth week can run into the next month, and "after the first" has no simple recurrence rule
+        if (afterFirst != null || week < 1 || week > 4) {
+            return null;
         }
+        return "FREQ=YEARLY;BYMONTH=" + month.getValue() + ";BYDAY=" + week + dayOfWeek.name().substring(0, 2);
     }
 
     @Override
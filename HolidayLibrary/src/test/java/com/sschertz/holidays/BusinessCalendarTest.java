@@ -0,0 +1,92 @@
+package com.sschertz.holidays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+
+/**
+ * Unit tests for {@link BusinessCalendar}.
+ */
+public class BusinessCalendarTest
+    extends TestCase
+{
+    private BusinessCalendar calendar;
+
+    public BusinessCalendarTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( BusinessCalendarTest.class );
+    }
+
+    @Override
+    protected void setUp()
+    {
+        calendar = HolidayFactory.fromDefaults()
+                .getCalendar("new years day", "memorial day", "independence day", "labor day",
+                        "thanksgiving day", "christmas")
+                .getBusinessCalendar();
+    }
+
+    public void testIsBusinessDay()
+    {
+        assertTrue( calendar.isBusinessDay(LocalDate.of(2016, 7, 5)) );
+        assertFalse( calendar.isBusinessDay(LocalDate.of(2016, 7, 4)) );
+        assertFalse( calendar.isBusinessDay(LocalDate.of(2016, 7, 9)) );
+        assertFalse( calendar.isBusinessDay(LocalDate.of(2016, 7, 10)) );
+    }
+
+    public void testNextAndPreviousBusinessDay()
+    {
+        assertEquals( LocalDate.of(2016, 7, 5), calendar.nextBusinessDay(LocalDate.of(2016, 7, 1)) );
+        assertEquals( LocalDate.of(2016, 7, 1), calendar.previousBusinessDay(LocalDate.of(2016, 7, 5)) );
+        assertEquals( LocalDate.of(2016, 1, 4), calendar.nextBusinessDay(LocalDate.of(2015, 12, 31)) );
+        assertEquals( LocalDate.of(2015, 12, 31), calendar.previousBusinessDay(LocalDate.of(2016, 1, 4)) );
+    }
+
+    public void testArithmeticMatchesDayByDay()
+    {
+        LocalDate start = LocalDate.of(2014, 12, 20);
+        LocalDate firstBusinessDay = calendar.nextBusinessDay(start);
+        LocalDate date = start;
+        int count = 0;
+        while (date.getYear() < 2019) {
+            date = date.plusDays(1);
+            if (calendar.isBusinessDay(date)) {
+                count++;
+                assertEquals( date, calendar.addBusinessDays(start, count) );
+                assertEquals( firstBusinessDay, calendar.addBusinessDays(date, 1 - count) );
+            }
+            assertEquals( date.toString(), count, calendar.businessDaysBetween(start, date.plusDays(1)) );
+            assertEquals( date.toString(), -count, calendar.businessDaysBetween(date.plusDays(1), start) );
+        }
+    }
+
+    public void testWeekendDefinition()
+    {
+        BusinessCalendar fridaySaturday = HolidayFactory.fromDefaults().getCalendar("christmas")
+                .getBusinessCalendar(EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY));
+        assertTrue( fridaySaturday.isBusinessDay(LocalDate.of(2016, 7, 10)) );
+        assertFalse( fridaySaturday.isBusinessDay(LocalDate.of(2016, 7, 8)) );
+        assertEquals( 5, fridaySaturday.businessDaysBetween(LocalDate.of(2016, 7, 10), LocalDate.of(2016, 7, 17)) );
+    }
+
+    public void testYearCacheIsBounded()
+    {
+        for (int year = 1000; year < 1000 + 3 * HolidayCalendar.MAX_CACHED_YEARS; year++) {
+            calendar.isBusinessDay(LocalDate.of(year, 7, 4));
+            assertTrue( calendar.getCachedYearCount() <= HolidayCalendar.MAX_CACHED_YEARS );
+        }
+
+        // Dropped years are rebuilt when they are used again
+        assertFalse( calendar.isBusinessDay(LocalDate.of(2016, 7, 4)) );
+        assertTrue( calendar.isBusinessDay(LocalDate.of(2016, 7, 5)) );
+    }
+}
@@ -0,0 +1,69 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Unit tests for {@link Computus}, {@link Easter} and {@link OrthodoxEaster}.
+ */
+public class ComputusTest
+    extends TestCase
+{
+    public ComputusTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ComputusTest.class );
+    }
+
+    public void testTableMatchesAlgorithm()
+    {
+        for (int year = Computus.FIRST_YEAR - 100; year <= Computus.LAST_YEAR + 100; year++) {
+            assertEquals( "western " + year, Computus.calculateWestern(year), Computus.western(year) );
+            assertEquals( "orthodox " + year, Computus.calculateOrthodox(year), Computus.orthodox(year) );
+        }
+    }
+
+    public void testKnownDates()
+    {
+        assertEquals( LocalDate.of(2017, 4, 16), LocalDate.ofEpochDay(Computus.western(2017)) );
+        assertEquals( LocalDate.of(2024, 3, 31), LocalDate.ofEpochDay(Computus.western(2024)) );
+        assertEquals( LocalDate.of(2285, 3, 22), LocalDate.ofEpochDay(Computus.western(2285)) );
+        assertEquals( LocalDate.of(2038, 4, 25), LocalDate.ofEpochDay(Computus.western(2038)) );
+
+        assertEquals( LocalDate.of(2017, 4, 16), LocalDate.ofEpochDay(Computus.orthodox(2017)) );
+        assertEquals( LocalDate.of(2023, 4, 16), LocalDate.ofEpochDay(Computus.orthodox(2023)) );
+        assertEquals( LocalDate.of(2024, 5, 5), LocalDate.ofEpochDay(Computus.orthodox(2024)) );
+        assertEquals( LocalDate.of(2025, 4, 20), LocalDate.ofEpochDay(Computus.orthodox(2025)) );
+    }
+
+    public void testOrthodoxEasterRule() throws IOException
+    {
+        String json = "{\"name\": \"orthodox\", \"supportedHolidays\": {\n" +
+                "  \"orthodox good friday\": {\"name\": \"orthodox good friday\", \"displayName\": \"Orthodox Good Friday\",\n" +
+                "    \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"orthodox easter\", \"daysBefore\": 2}},\n" +
+                "  \"orthodox easter\": {\"name\": \"orthodox easter\", \"displayName\": \"Orthodox Easter Sunday\",\n" +
+                "    \"type\": \"orthodox_easter\", \"rule\": {}}\n" +
+                "}}";
+        HolidayRegistry registry = new HolidayRegistry(Json.parse(json).asObject().get("supportedHolidays").asObject());
+        assertEquals( Holiday.RuleType.ORTHODOX_EASTER, registry.get("orthodox easter").getType() );
+        assertEquals( LocalDate.of(2024, 5, 3), registry.get("orthodox good friday").getDate(2024) );
+
+        HolidayFactory holidays = new HolidayFactory("orthodox", null, null, null, registry);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        holidays.writeSnapshot(out);
+        HolidayFactory loaded = HolidayFactory.fromSnapshot(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals( LocalDate.of(2024, 5, 5), loaded.getHoliday("orthodox easter").getDate(2024) );
+        assertEquals( LocalDate.of(2024, 5, 3), loaded.getHoliday("orthodox good friday").getDate(2024) );
+    }
+}
@@ -0,0 +1,63 @@
+package com.sschertz.holidays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Unit tests for {@link DateUtilities}. The epoch day methods must always agree with
+ * the {@code LocalDate} methods they mirror.
+ */
+public class DateUtilitiesTest
+    extends TestCase
+{
+    public DateUtilitiesTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( DateUtilitiesTest.class );
+    }
+
+    public void testToEpochDay()
+    {
+        for (LocalDate date = LocalDate.of(1599, 1, 1); date.getYear() < 2401; date = date.plusDays(1)) {
+            assertEquals( date.toString(), date.toEpochDay(),
+                    DateUtilities.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()) );
+            assertEquals( date.toString(), date.getDayOfWeek().getValue(),
+                    DateUtilities.getDayOfWeekValue(date.toEpochDay()) );
+            assertEquals( date.toString(), date.getYear(), DateUtilities.getYear(date.toEpochDay()) );
+        }
+        assertEquals( LocalDate.of(-400, 3, 1).toEpochDay(), DateUtilities.toEpochDay(-400, 3, 1) );
+        assertEquals( -400, DateUtilities.getYear(LocalDate.of(-400, 12, 31).toEpochDay()) );
+    }
+
+    public void testEpochDayHelpersMatchLocalDateHelpers()
+    {
+        for (int year = 1899; year < 2101; year++) {
+            for (Month month : Month.values()) {
+                assertEquals( DateUtilities.getFirstFullWeekOfMonth(year, month).toEpochDay(),
+                        DateUtilities.getFirstFullWeekOfMonthAsEpochDay(year, month) );
+                assertEquals( DateUtilities.getLastFullWeekOfMonth(year, month).toEpochDay(),
+                        DateUtilities.getLastFullWeekOfMonthAsEpochDay(year, month) );
+
+                for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+                    assertEquals( DateUtilities.getLastSpecifiedDayInMonth(year, month, dayOfWeek).toEpochDay(),
+                            DateUtilities.getLastSpecifiedDayInMonthAsEpochDay(year, month, dayOfWeek) );
+                    // Week 5 runs into the next month when the month has only four of dayOfWeek
+                    for (int week = 1; week <= 5; week++) {
+                        assertEquals(
+                                DateUtilities.getSpecifiedDayInWeekOfMonth(year, month, week, dayOfWeek).toEpochDay(),
+                                DateUtilities.getSpecifiedDayInWeekOfMonthAsEpochDay(year, month, week, dayOfWeek) );
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link HolidayCalendar}.
+ */
+public class HolidayCalendarTest
+    extends TestCase
+{
+    private HolidayFactory holidays;
+
+    public HolidayCalendarTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayCalendarTest.class );
+    }
+
+    @Override
+    protected void setUp()
+    {
+        holidays = HolidayFactory.fromDefaults();
+    }
+
+    public void testIsHolidayMatchesRules()
+    {
+        HolidayCalendar calendar = holidays.getCalendar();
+        for (LocalDate date = LocalDate.of(1999, 1, 1); date.getYear() < 2031; date = date.plusDays(1)) {
+            boolean expected = false;
+            for (Holiday holiday : holidays.getSupportedHolidays()) {
+                // observed holidays can move into the neighbouring year
+                for (int year = date.getYear() - 1; year <= date.getYear() + 1; year++) {
+                    expected |= holiday.getDate(year).equals(date);
+                }
+            }
+            assertEquals( date.toString(), expected, calendar.isHoliday(date) );
+            assertEquals( date.toString(), expected, calendar.isHoliday(date.toEpochDay()) );
+        }
+    }
+
+    public void testHolidaysInDateOrder()
+    {
+        for (int year = 2015; year < 2025; year++) {
+            List<Holiday> expected = new ArrayList<>(holidays.getSupportedHolidays());
+            Collections.sort(expected, Holiday.byDate(year));
+
+            List<Holiday> byDate = holidays.getSupportedHolidays(year);
+            assertEquals( expected, byDate );
+            assertSame( byDate, holidays.getCalendar().getHolidays(year) );
+            for (int i = 1; i < byDate.size(); i++) {
+                assertTrue( byDate.get(i - 1).getEpochDay(year) <= byDate.get(i).getEpochDay(year) );
+            }
+        }
+        assertSame( holidays.getSupportedHolidays(), holidays.getSupportedHolidays() );
+    }
+
+    public void testSubsetCalendar()
+    {
+        HolidayCalendar calendar = holidays.getCalendar("thanksgiving day", "christmas");
+        assertEquals( 2, calendar.getHolidays().size() );
+        assertTrue( calendar.isHoliday(LocalDate.of(2016, 11, 24)) );
+        assertTrue( calendar.isHoliday(LocalDate.of(2016, 12, 25)) );
+        assertFalse( calendar.isHoliday(LocalDate.of(2016, 7, 4)) );
+        assertTrue( holidays.getCalendar().isHoliday(LocalDate.of(2016, 7, 4)) );
+    }
+
+    public void testObservedCalendar()
+    {
+        HolidayCalendar observed = holidays.getObservedCalendar();
+        assertEquals( 3, observed.getHolidays().size() );
+        assertTrue( observed.isHoliday(LocalDate.of(2016, 12, 26)) );
+        assertFalse( observed.isHoliday(LocalDate.of(2016, 12, 25)) );
+        assertTrue( observed.isHoliday(LocalDate.of(2021, 12, 31)) );
+        assertFalse( observed.isHoliday(LocalDate.of(2022, 1, 1)) );
+        assertTrue( observed.isHoliday(LocalDate.of(2020, 7, 3)) );
+    }
+
+    public void testOccurrencesMatchRules()
+    {
+        LocalDate start = LocalDate.of(2015, 6, 15);
+        LocalDate end = LocalDate.of(2065, 6, 14);
+
+        List<HolidayOccurrence> expected = new ArrayList<>();
+        for (Holiday holiday : holidays.getSupportedHolidays()) {
+            for (int year = start.getYear() - 1; year <= end.getYear() + 1; year++) {
+                LocalDate date = holiday.getDate(year);
+                if (!date.isBefore(start) && !date.isAfter(end)) {
+                    expected.add(new HolidayOccurrence(holiday, date.toEpochDay()));
+                }
+            }
+        }
+        Collections.sort(expected);
+
+        assertEquals( expected, holidays.getOccurrences(start, end).collect(Collectors.toList()) );
+        assertEquals( 0, holidays.getOccurrences(end, start).count() );
+        assertEquals( "Christmas Day: 2016-12-25",
+                holidays.getCalendar("christmas")
+                        .getOccurrences(LocalDate.of(2016, 12, 25), LocalDate.of(2016, 12, 25))
+                        .findFirst().get().toString() );
+    }
+
+    public void testNextAndPreviousOccurrencesMatchRange()
+    {
+        // New Year's Day 2022 is observed on 2021-12-31
+        LocalDate date = LocalDate.of(2021, 12, 31);
+
+        List<HolidayOccurrence> next = holidays.getOccurrences(date, date.plusYears(3))
+                .limit(100).collect(Collectors.toList());
+        assertEquals( next, holidays.getNextOccurrences(date, 100) );
+        assertEquals( LocalDate.of(2021, 12, 31), next.get(0).getDate() );
+
+        List<HolidayOccurrence> previous = holidays.getOccurrences(date.minusYears(3), date)
+                .collect(Collectors.toList());
+        Collections.reverse(previous);
+        assertEquals( previous.subList(0, 100), holidays.getPreviousOccurrences(date, 100) );
+
+        assertTrue( holidays.getNextOccurrences(date, 0).isEmpty() );
+        assertTrue( holidays.getCalendar(new String[0]).getNextOccurrences(date, 5).isEmpty() );
+    }
+
+    public void testHolidayDatesAcrossEpoch()
+    {
+        // 1969-12-31 (New Year's Eve) is epoch day -1
+        HolidayCalendar calendar = holidays.getCalendar();
+        LocalDate start = LocalDate.of(1969, 12, 1);
+        LocalDate end = LocalDate.of(1970, 1, 5);
+
+        List<LocalDate> expected = calendar.getOccurrences(start, end)
+                .map(HolidayOccurrence::getDate).distinct().collect(Collectors.toList());
+        assertTrue( expected.contains(LocalDate.of(1969, 12, 31)) );
+        assertEquals( expected, calendar.getHolidayDates(start, end).collect(Collectors.toList()) );
+        assertEquals( expected.size(), calendar.countHolidayDates(start, end) );
+
+        LocalDate newYearsEve = LocalDate.of(1969, 12, 31);
+        assertEquals( Collections.singletonList(newYearsEve),
+                calendar.getHolidayDates(newYearsEve, newYearsEve).collect(Collectors.toList()) );
+    }
+
+    public void testCombinedCalendar()
+    {
+        HolidayFactory test = HolidayFactory.fromTest();
+        HolidayCalendar combined = HolidayFactory.combine(holidays, test, holidays);
+        assertEquals( holidays.getCalendar().getHolidays().size() + test.getCalendar().getHolidays().size(),
+                combined.getHolidays().size() );
+
+        LocalDate start = LocalDate.of(2015, 3, 10);
+        LocalDate end = LocalDate.of(2019, 10, 2);
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            assertEquals( date.toString(), holidays.getCalendar().isHoliday(date) || test.getCalendar().isHoliday(date),
+                    combined.isHoliday(date) );
+        }
+
+        List<LocalDate> expected = combined.getOccurrences(start, end)
+                .map(HolidayOccurrence::getDate).distinct().collect(Collectors.toList());
+        assertEquals( expected, combined.getHolidayDates(start, end).collect(Collectors.toList()) );
+        assertEquals( expected.size(), combined.countHolidayDates(start, end) );
+
+        // Ranges within a single year, and empty ranges
+        LocalDate christmas = LocalDate.of(2016, 12, 25);
+        assertEquals( 1, holidays.getCalendar("christmas").countHolidayDates(christmas, christmas) );
+        assertEquals( 0, combined.countHolidayDates(end, start) );
+        assertEquals( 0, combined.getHolidayDates(end, start).count() );
+    }
+
+    public void testBatchClassification()
+    {
+        HolidayCalendar calendar = holidays.getCalendar();
+        Random random = new Random(42);
+        long first = LocalDate.of(1900, 1, 1).toEpochDay();
+        long last = LocalDate.of(2100, 12, 31).toEpochDay();
+
+        // Enough dates to be split between several tasks, in runs from the same year mixed with random dates
+        long[] epochDays = new long[100000];
+        int[] intDays = new int[epochDays.length];
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = (i % 2 == 0) ? first + random.nextInt((int) (last - first + 1)) : epochDays[i - 1] + 1;
+            intDays[i] = (int) epochDays[i];
+        }
+
+        boolean[] mask = new boolean[epochDays.length];
+        int[] ids = new int[epochDays.length];
+        calendar.isHoliday(epochDays, mask);
+        calendar.getHolidayIds(epochDays, ids);
+        for (int i = 0; i < epochDays.length; i++) {
+            List<Holiday> on = calendar.getHolidaysOn(LocalDate.ofEpochDay(epochDays[i]));
+            assertEquals( calendar.isHoliday(epochDays[i]), mask[i] );
+            assertEquals( on.isEmpty() ? -1 : calendar.getHolidays().indexOf(on.get(0)), ids[i] );
+        }
+
+        boolean[] parallelMask = new boolean[epochDays.length];
+        int[] parallelIds = new int[epochDays.length];
+        calendar.isHoliday(epochDays, parallelMask, ForkJoinPool.commonPool());
+        calendar.getHolidayIds(epochDays, parallelIds, ForkJoinPool.commonPool());
+        assertTrue( Arrays.equals(mask, parallelMask) );
+        assertTrue( Arrays.equals(ids, parallelIds) );
+
+        boolean[] intMask = new boolean[epochDays.length];
+        int[] intIds = new int[epochDays.length];
+        calendar.isHoliday(intDays, intMask);
+        calendar.getHolidayIds(intDays, intIds, ForkJoinPool.commonPool());
+        assertTrue( Arrays.equals(mask, intMask) );
+        assertTrue( Arrays.equals(ids, intIds) );
+
+        try {
+            calendar.isHoliday(epochDays, new boolean[1]);
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testYearCacheIsBounded()
+    {
+        HolidayCalendar calendar = holidays.getCalendar();
+        Holiday christmas = holidays.getHoliday("christmas");
+        for (int year = 1000; year < 1000 + HolidayCalendar.MAX_CACHED_YEARS * 3; year++) {
+            assertTrue( calendar.isHoliday(christmas.getDate(year)) );
+            assertTrue( calendar.getCachedYearCount() <= HolidayCalendar.MAX_CACHED_YEARS );
+        }
+
+        // Dropped years are rebuilt when they are used again
+        assertTrue( calendar.isHoliday(christmas.getDate(1000)) );
+        assertFalse( calendar.isHoliday(christmas.getDate(1000).plusDays(1)) );
+    }
+
+    public void testUndefinedHolidayInCalendar()
+    {
+        try {
+            holidays.getCalendar("not defined");
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public void testLeapDayHolidayInCalendar()
+    {
+        HolidayFactory leap = leapDayHolidays();
+        Holiday leapDay = leap.getHoliday("leap day");
+        Holiday leapDayEve = leap.getHoliday("leap day eve");
+        Holiday christmas = leap.getHoliday("christmas");
+
+        for (int pass = 0; pass < 2; pass++) {
+            HolidayCalendar calendar = leap.getCalendar();
+            assertTrue( calendar.isHoliday(LocalDate.of(2021, 12, 25)) );
+            assertFalse( calendar.isHoliday(LocalDate.of(2021, 2, 28)) );
+            assertFalse( calendar.isHoliday(LocalDate.of(2021, 3, 1)) );
+            assertEquals( Arrays.asList(leapDay), calendar.getHolidaysOn(LocalDate.of(2020, 2, 29)) );
+            assertEquals( Arrays.asList(leapDayEve), calendar.getHolidaysOn(LocalDate.of(2020, 2, 28)) );
+
+            // A year without a leap day only has the holidays that occur in it
+            assertEquals( Arrays.asList(christmas), calendar.getHolidays(2021) );
+            assertEquals( Arrays.asList(leapDayEve, leapDay, christmas), calendar.getHolidays(2024) );
+
+            assertEquals( 10, calendar.getOccurrences(LocalDate.of(2019, 1, 1), LocalDate.of(2024, 12, 31)).count() );
+            List<HolidayOccurrence> next = calendar.getNextOccurrences(LocalDate.of(2021, 1, 1), 4);
+            assertEquals( LocalDate.of(2024, 2, 28), next.get(3).getDate() );
+            List<HolidayOccurrence> previous = calendar.getPreviousOccurrences(LocalDate.of(2023, 6, 1), 4);
+            assertEquals( LocalDate.of(2020, 2, 29), previous.get(3).getDate() );
+
+            // 2100 is not a leap year, so the leap days either side are eight years apart
+            List<LocalDate> leapDays = calendar.getOccurrences(LocalDate.of(2093, 1, 1), LocalDate.of(2105, 12, 31))
+                    .filter(occurrence -> occurrence.getHoliday() == leapDay)
+                    .map(HolidayOccurrence::getDate)
+                    .collect(Collectors.toList());
+            assertEquals( Arrays.asList(LocalDate.of(2096, 2, 29), LocalDate.of(2104, 2, 29)), leapDays );
+
+            // The second pass reads the dates from a precomputed table
+            leap.precomputeYears(2000, 2110);
+        }
+
+        try {
+            leapDay.getDate(2021);
+            fail( "Expected DateTimeException" );
+        } catch (DateTimeException e) {
+            // expected
+        }
+
+        leap.setClock(Clock.fixed(Instant.parse("2101-06-01T12:00:00Z"), ZoneOffset.UTC));
+        assertEquals( LocalDate.of(2096, 2, 29), leapDay.getDate(Holiday.TimeFrame.LAST, ZoneOffset.UTC) );
+        assertEquals( LocalDate.of(2104, 2, 29), leapDay.getDate(Holiday.TimeFrame.NEXT, ZoneOffset.UTC) );
+        assertEquals( LocalDate.of(2104, 2, 28), leapDayEve.getDate(Holiday.TimeFrame.NEXT, ZoneOffset.UTC) );
+    }
+
+    public void testNonexistentStaticDate()
+    {
+        try {
+            new HolidayRegistry(Json.parse("{\"feb 30\": {\"name\": \"feb 30\", \"displayName\": \"February 30\"," +
+                    " \"type\": \"static_date\", \"rule\": {\"month\": \"february\", \"day\": 30}}}").asObject());
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    static HolidayFactory leapDayHolidays()
+    {
+        String json = "{\"leap day\": {\"name\": \"leap day\", \"displayName\": \"Leap Day\"," +
+                " \"type\": \"static_date\", \"rule\": {\"month\": \"february\", \"day\": 29}}," +
+                " \"leap day eve\": {\"name\": \"leap day eve\", \"displayName\": \"Leap Day Eve\"," +
+                " \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"leap day\", \"daysBefore\": 1}}," +
+                " \"christmas\": {\"name\": \"christmas\", \"displayName\": \"Christmas Day\"," +
+                " \"type\": \"static_date\", \"rule\": {\"month\": \"december\", \"day\": 25}}}";
+        return new HolidayFactory("Leap", null, null, null, new HolidayRegistry(Json.parse(json).asObject()));
+    }
+}
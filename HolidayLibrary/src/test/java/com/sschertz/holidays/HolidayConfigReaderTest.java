@@ -0,0 +1,179 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link HolidayConfigReader}.
+ */
+public class HolidayConfigReaderTest
+    extends TestCase
+{
+    public HolidayConfigReaderTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayConfigReaderTest.class );
+    }
+
+    public void testMatchesDomParser() throws IOException
+    {
+        for (String resource : new String[] { "us_holidays_default.json", "test_holidays.json" }) {
+            HolidayConfigReader config = new HolidayConfigReader(open(resource));
+            config.read();
+
+            HolidayRegistry expected;
+            try (Reader reader = open(resource)) {
+                expected = new HolidayRegistry(Json.parse(reader).asObject().get("supportedHolidays").asObject());
+            }
+
+            HolidayRegistry actual = config.getRegistry();
+            assertEquals( expected.asMap().keySet(), actual.asMap().keySet() );
+            for (Map.Entry<String, Holiday> entry : expected.asMap().entrySet()) {
+                Holiday holiday = entry.getValue();
+                Holiday loaded = actual.get(entry.getKey());
+                assertEquals( holiday.toString(), loaded.toString() );
+                for (int year = 1950; year < 2050; year++) {
+                    assertEquals( holiday.getName() + " " + year, holiday.getEpochDay(year), loaded.getEpochDay(year) );
+                }
+            }
+        }
+    }
+
+    public void testForwardReferencesAndSkippedProperties() throws IOException
+    {
+        String json = "{\n" +
+                "  \"name\": \"Escaped \\\"name\\\" \\u00e9\",\n" +
+                "  \"comments\": [1, 2.5e3, {\"a\": [true, null]}, \"}\"],\n" +
+                "  \"count\": 3,\n" +
+                "  \"supportedHolidays\": {\n" +
+                "    \"maundy thursday\": {\"name\": \"maundy thursday\", \"displayName\": \"Maundy Thursday\",\n" +
+                "      \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"good friday\", \"daysBefore\": 1}},\n" +
+                "    \"good friday\": {\"name\": \"good friday\", \"displayName\": \"Good Friday\",\n" +
+                "      \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"easter\", \"daysBefore\": 2}},\n" +
+                "    \"easter\": {\"name\": \"easter\", \"displayName\": \"Easter\", \"type\": \"easter\", \"rule\": {}}\n" +
+                "  },\n" +
+                "  \"locale\": \"US\"\n" +
+                "}";
+        HolidayConfigReader config = new HolidayConfigReader(new StringReader(json));
+        config.read();
+
+        assertEquals( "Escaped \"name\" \u00e9", config.getName() );
+        assertEquals( "US", config.getLocale() );
+        assertNull( config.getVersion() );
+
+        HolidayRegistry registry = config.getRegistry();
+        assertEquals( 3, registry.size() );
+        assertEquals( LocalDate.of(2017, 4, 13), registry.get("maundy thursday").getDate(2017) );
+        assertTrue( registry.get("easter").getOrdinal() < registry.get("good friday").getOrdinal() );
+        assertTrue( registry.get("good friday").getOrdinal() < registry.get("maundy thursday").getOrdinal() );
+    }
+
+    public void testRejectsInvalidConfiguration() throws IOException
+    {
+        assertInvalid( "{\"name\": \"no holidays\"}" );
+        assertInvalid( "{\"supportedHolidays\": {\"a\": {\"name\": " );
+        assertInvalid( "[]" );
+        assertInvalid( "" );
+
+        // Duplicate holidays, including one that a holiday read in between depends on
+        String easter = "\"easter\": {\"name\": \"easter\", \"displayName\": \"Easter\", \"type\": \"easter\", \"rule\": {}}";
+        String goodFriday = "\"gf\": {\"name\": \"gf\", \"displayName\": \"Good Friday\"," +
+                " \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"easter\", \"daysBefore\": 2}}";
+        assertInvalid( "{\"supportedHolidays\": {" + easter + ", " + goodFriday + ", " + easter + "}}" );
+        assertInvalid( "{\"supportedHolidays\": {" + goodFriday + ", " + goodFriday + ", " + easter + "}}" );
+        assertInvalid( "{\"supportedHolidays\": {\"loop\": {\"name\": \"loop\", \"displayName\": \"Loop\"," +
+                " \"type\": \"days_before_holiday\", \"rule\": {\"holiday\": \"loop\", \"daysBefore\": 1}}}}" );
+    }
+
+    public void testRejectsMalformedJson() throws IOException
+    {
+        // Structure
+        assertInvalid( withProperty("\"extra\": [1, 2,]") );
+        assertInvalid( withProperty("\"extra\": {\"a\": 1,}") );
+        assertInvalid( withProperty("\"extra\": {\"a\" 1}") );
+        assertInvalid( withProperty("\"extra\": {a: 1}") );
+        assertInvalid( withProperty("\"extra\": [1 2]") );
+        assertInvalid( withProperty("\"extra\": tru") );
+        assertInvalid( withProperty("\"extra\": undefined") );
+        assertInvalid( withProperty("\"extra\": \"unterminated") );
+
+        // Numbers
+        assertInvalid( withProperty("\"extra\": +1") );
+        assertInvalid( withProperty("\"extra\": 01") );
+        assertInvalid( withProperty("\"extra\": 1.") );
+        assertInvalid( withProperty("\"extra\": .5") );
+        assertInvalid( withProperty("\"extra\": 1e") );
+        assertInvalid( withProperty("\"extra\": 1-2") );
+        assertInvalid( withProperty("\"extra\": -") );
+
+        // Strings
+        assertInvalid( withProperty("\"extra\": \"\\x\"") );
+        assertInvalid( withProperty("\"extra\": \"\\u12g4\"") );
+        assertInvalid( withProperty("\"extra\": \"line\nbreak\"") );
+    }
+
+    public void testRejectsTrailingContent() throws IOException
+    {
+        String json = withProperty("\"extra\": 1");
+        assertValid( json + "  \n\t" );
+        assertInvalid( json + " garbage" );
+        assertInvalid( json + json );
+        assertInvalid( json + "}" );
+    }
+
+    public void testReadsEscapesAndUnknownValues() throws IOException
+    {
+        HolidayConfigReader config = assertValid( "{\"name\": \"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u0041\\u00e9\\ud83c\\udf89\"," +
+                " \"big\": 123456789012345678901234567890, \"numbers\": [-0, 0.5, -1.5E-3, 2e+10, -9223372036854775809]," +
+                " \"supportedHolidays\": {\"easter\": {\"name\": \"easter\", \"displayName\": \"Easter\"," +
+                " \"type\": \"easter\", \"rule\": {}, \"notes\": {\"nested\": [[], {}, [null, {\"deep\": [false]}]]}}}}" );
+        assertEquals( "\"\\/\b\f\n\r\tA\u00e9\ud83c\udf89", config.getName() );
+        assertEquals( LocalDate.of(2017, 4, 16), config.getRegistry().get("easter").getDate(2017) );
+    }
+
+    /**
+     * Returns a valid configuration with one extra top-level property.
+     */
+    private static String withProperty( String property )
+    {
+        return "{" + property + ", \"supportedHolidays\": {\"easter\": {\"name\": \"easter\"," +
+                " \"displayName\": \"Easter\", \"type\": \"easter\", \"rule\": {}}}}";
+    }
+
+    private static HolidayConfigReader assertValid( String json ) throws IOException
+    {
+        HolidayConfigReader config = new HolidayConfigReader(new StringReader(json));
+        config.read();
+        assertEquals( 1, config.getRegistry().size() );
+        return config;
+    }
+
+    private static void assertInvalid( String json ) throws IOException
+    {
+        try {
+            new HolidayConfigReader(new StringReader(json)).read();
+            fail( "Expected IllegalArgumentException for " + json );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private Reader open( String resource )
+    {
+        return new InputStreamReader(getClass().getClassLoader().getResourceAsStream(resource), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package com.sschertz.holidays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link HolidayFactoryCache}.
+ */
+public class HolidayFactoryCacheTest
+    extends TestCase
+{
+    public HolidayFactoryCacheTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayFactoryCacheTest.class );
+    }
+
+    public void testReturnsCachedFactory()
+    {
+        HolidayFactoryCache cache = new HolidayFactoryCache(4);
+        HolidayFactory holidays = cache.get("us_holidays_default.json");
+        assertNotNull( holidays );
+        assertSame( holidays, cache.get("us_holidays_default.json") );
+        assertSame( holidays, cache.get(Locale.US) );
+
+        HolidayFactoryCache.Stats stats = cache.getStats();
+        assertEquals( 2, stats.getHitCount() );
+        assertEquals( 1, stats.getMissCount() );
+        assertEquals( 1, stats.getLoadCount() );
+        assertTrue( stats.getTotalLoadTimeNanos() > 0 );
+
+        cache.invalidate("us_holidays_default.json");
+        assertNotSame( holidays, cache.get("us_holidays_default.json") );
+    }
+
+    public void testEvictsLeastRecentlyUsed()
+    {
+        HolidayFactoryCache cache = new HolidayFactoryCache(2);
+        HolidayFactory defaults = cache.get("us_holidays_default.json");
+        cache.get("test_holidays.json");
+        assertSame( defaults, cache.get("us_holidays_default.json") );
+
+        // Missing resources are not cached and do not evict anything
+        assertNull( cache.get("missing_holidays.json") );
+        assertNull( cache.get(Locale.CANADA) );
+        assertEquals( 2, cache.size() );
+        assertEquals( 0, cache.getStats().getEvictionCount() );
+        assertEquals( 2, cache.getStats().getLoadFailureCount() );
+
+        HolidayFactoryCache small = new HolidayFactoryCache(1);
+        HolidayFactory first = small.get("us_holidays_default.json");
+        small.get("test_holidays.json");
+        assertEquals( 1, small.size() );
+        assertEquals( 1, small.getStats().getEvictionCount() );
+        assertNotSame( first, small.get("us_holidays_default.json") );
+    }
+
+    public void testLoadsOnceForConcurrentRequests() throws Exception
+    {
+        final HolidayFactoryCache cache = new HolidayFactoryCache(4);
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HolidayFactory>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(new Callable<HolidayFactory>() {
+                    @Override
+                    public HolidayFactory call() throws Exception {
+                        start.await();
+                        return cache.get("us_holidays_default.json");
+                    }
+                }));
+            }
+            start.countDown();
+
+            HolidayFactory holidays = results.get(0).get();
+            for (Future<HolidayFactory> result : results) {
+                assertSame( holidays, result.get() );
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals( 1, cache.getStats().getLoadCount() );
+        assertEquals( 8, cache.getStats().getHitCount() + cache.getStats().getMissCount() );
+    }
+
+    public void testConcurrentRequestsForInvalidResource() throws Exception
+    {
+        final int threads = 4;
+        final HolidayFactoryCache cache = new HolidayFactoryCache(4);
+        final CountDownLatch waiting = new CountDownLatch(threads - 1);
+
+        // Hold up the load until every other thread is waiting for it
+        HolidayFactory.setListener(new HolidayListener() {
+            @Override
+            public void cacheHit(String resource) {
+                waiting.countDown();
+            }
+
+            @Override
+            public void cacheMiss(String resource) {
+                try {
+                    waiting.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<HolidayFactory>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<HolidayFactory>() {
+                    @Override
+                    public HolidayFactory call() throws Exception {
+                        return cache.get("invalid_holidays.json");
+                    }
+                }));
+            }
+
+            for (Future<HolidayFactory> result : results) {
+                try {
+                    result.get();
+                    fail( "Expected IllegalArgumentException" );
+                } catch (ExecutionException e) {
+                    assertTrue( String.valueOf(e.getCause()), e.getCause() instanceof IllegalArgumentException );
+                }
+            }
+        } finally {
+            executor.shutdown();
+            HolidayFactory.setListener(HolidayListener.NONE);
+        }
+
+        assertEquals( 1, cache.getStats().getMissCount() );
+        assertEquals( threads - 1, cache.getStats().getHitCount() );
+        assertEquals( 0, cache.size() );
+    }
+
+    public void testRejectsLocaleWithoutCountry()
+    {
+        try {
+            HolidayFactoryCache.getDefault().get(Locale.ENGLISH);
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
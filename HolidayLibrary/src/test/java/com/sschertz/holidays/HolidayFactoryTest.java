@@ -0,0 +1,335 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for {@link HolidayFactory}.
+ */
+public class HolidayFactoryTest
+    extends TestCase
+{
+    private HolidayFactory holidays;
+
+    public HolidayFactoryTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayFactoryTest.class );
+    }
+
+    @Override
+    protected void setUp()
+    {
+        holidays = HolidayFactory.fromDefaults();
+    }
+
+    public void testGetHolidayReturnsSharedInstance()
+    {
+        Holiday first = holidays.getHoliday("thanksgiving day");
+        assertNotNull( first );
+        assertSame( first, holidays.getHoliday("thanksgiving day") );
+        assertSame( first, holidays.getHoliday(HolidayFactory.DefaultHolidays.THANKSGIVING_DAY) );
+    }
+
+    public void testUndefinedHoliday()
+    {
+        assertFalse( holidays.isHolidayDefined("not defined") );
+        assertNull( holidays.getHoliday("not defined") );
+    }
+
+    public void testSupportedHolidays()
+    {
+        List<Holiday> supported = holidays.getSupportedHolidays();
+        assertEquals( HolidayFactory.DefaultHolidays.values().length + 2, supported.size() );
+        for (HolidayFactory.DefaultHolidays holiday : HolidayFactory.DefaultHolidays.values()) {
+            assertTrue( holiday.getFriendlyName(), supported.contains(holidays.getHoliday(holiday)) );
+        }
+    }
+
+    public void testNextAndLastFollowClock()
+    {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        Holiday christmas = holidays.getHoliday("christmas");
+
+        // 11:30 PM on Christmas Eve in New York is already Christmas Day in Tokyo
+        Instant christmasEve = LocalDate.of(2016, 12, 24).atTime(23, 30).atZone(newYork).toInstant();
+        holidays.setClock(Clock.fixed(christmasEve, ZoneOffset.UTC));
+        assertEquals( LocalDate.of(2016, 12, 25), christmas.getDate(Holiday.TimeFrame.NEXT, newYork) );
+        assertEquals( LocalDate.of(2015, 12, 25), christmas.getDate(Holiday.TimeFrame.LAST, newYork) );
+        assertEquals( LocalDate.of(2016, 12, 25), christmas.getDate(Holiday.TimeFrame.LAST, tokyo) );
+
+        // The cached dates for New York are replaced once it is midnight there
+        holidays.setClock(Clock.fixed(christmasEve.plusSeconds(3600), ZoneOffset.UTC));
+        assertEquals( LocalDate.of(2016, 12, 25), christmas.getDate(Holiday.TimeFrame.LAST, newYork) );
+        assertEquals( LocalDate.of(2016, 12, 25), christmas.getDate(Holiday.TimeFrame.NEXT, newYork) );
+
+        // New Year's Day 2022 is a Saturday, so it is observed in the previous year
+        holidays.setClock(Clock.fixed(Instant.parse("2021-12-31T12:00:00Z"), ZoneOffset.UTC));
+        Holiday observed = holidays.getHoliday(HolidayFactory.DefaultHolidays.NEW_YEARS_DAY_OBSERVED);
+        assertEquals( LocalDate.of(2021, 12, 31), observed.getDate(Holiday.TimeFrame.NEXT, ZoneOffset.UTC) );
+        assertEquals( LocalDate.of(2021, 12, 31), observed.getDate(Holiday.TimeFrame.LAST, ZoneOffset.UTC) );
+        assertEquals( 2021, observed.getDate().getYear() );
+    }
+
+    public void testFromFile() throws IOException
+    {
+        Path file = Files.createTempFile("holidays", ".json");
+        try {
+            writeHolidays(file, "christmas");
+            HolidayFactory fromFile = HolidayFactory.fromFile(file.toString());
+            assertEquals( "File Holidays: Christmas Day", fromFile.toString() );
+            assertEquals( LocalDate.of(2016, 12, 25), fromFile.getHoliday("christmas").getDate(2016) );
+        } finally {
+            Files.delete(file);
+        }
+        assertNull( HolidayFactory.fromFile(file.toString()) );
+    }
+
+    public void testFromFileWithInvalidEncoding() throws IOException
+    {
+        Path file = Files.createTempFile("holidays", ".json");
+        try {
+            writeHolidays(file, "christmas");
+            byte[] bytes = Files.readAllBytes(file);
+            byte[] invalid = new byte[bytes.length + 2];
+            System.arraycopy(bytes, 0, invalid, 0, bytes.length);
+            // A lone continuation byte is not valid UTF-8; put it inside the last string
+            int quote = new String(bytes, StandardCharsets.UTF_8).lastIndexOf('"');
+            System.arraycopy(bytes, quote, invalid, quote + 2, bytes.length - quote);
+            invalid[quote] = (byte) 0x80;
+            invalid[quote + 1] = (byte) 0x80;
+            Files.write(file, invalid);
+
+            assertNull( HolidayFactory.fromFile(file.toString()) );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testReload() throws IOException
+    {
+        Path file = Files.createTempFile("holidays", ".json");
+        try {
+            writeHolidays(file, "christmas");
+            HolidayFactory fromFile = HolidayFactory.fromFile(file.toString());
+            fromFile.precomputeYears(2000, 2030);
+            Holiday christmas = fromFile.getHoliday("christmas");
+
+            writeHolidays(file, "christmas", "halloween");
+            fromFile.reload();
+            assertTrue( fromFile.isHolidayDefined("halloween") );
+            assertEquals( 2, fromFile.getCalendar().getHolidays().size() );
+            assertEquals( 2030, fromFile.getRegistry().getYearTable().getLastYear() );
+
+            // Holidays from before the reload keep working
+            assertEquals( LocalDate.of(2016, 12, 25), christmas.getDate(2016) );
+
+            // An invalid file leaves the current holidays in place
+            Files.write(file, "{".getBytes(StandardCharsets.UTF_8));
+            try {
+                fromFile.reload();
+                fail( "Expected an exception" );
+            } catch (RuntimeException e) {
+                // expected
+            }
+            assertTrue( fromFile.isHolidayDefined("halloween") );
+        } finally {
+            Files.delete(file);
+        }
+
+        try {
+            holidays.reload();
+            fail( "Expected IllegalStateException" );
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testConcurrentReload() throws Exception
+    {
+        Path first = Files.createTempFile("holidays", ".json");
+        Path second = Files.createTempFile("holidays", ".json");
+        Path file = Files.createTempFile("holidays", ".json");
+        try {
+            writeNamedHolidays(first, "First", "christmas");
+            writeNamedHolidays(second, "Second", "christmas", "halloween");
+            Files.copy(first, file, StandardCopyOption.REPLACE_EXISTING);
+            HolidayFactory fromFile = HolidayFactory.fromFile(file.toString());
+
+            AtomicBoolean done = new AtomicBoolean();
+            Thread reloader = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        Files.copy((i % 2 == 0) ? second : first, file, StandardCopyOption.REPLACE_EXISTING);
+                        fromFile.reload();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.set(true);
+                }
+            });
+            reloader.start();
+            try {
+                int year = 2000;
+                while (!done.get()) {
+                    // The name is always read with the holidays it was loaded with
+                    String description = fromFile.toString();
+                    assertTrue( description, description.equals("First: Christmas Day") ||
+                            description.equals("Second: Christmas Day, Halloween") );
+
+                    // Settings changed while the holidays are being reloaded are never lost
+                    Clock clock = Clock.fixed(Instant.ofEpochSecond(year), ZoneOffset.UTC);
+                    fromFile.setClock(clock);
+                    fromFile.precomputeYears(year, year + 10);
+                    assertSame( clock, fromFile.getClock() );
+                    assertEquals( year, fromFile.getRegistry().getYearTable().getFirstYear() );
+                    year++;
+                }
+            } finally {
+                reloader.join();
+            }
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+            Files.delete(file);
+        }
+    }
+
+    public void testWatch() throws IOException, InterruptedException
+    {
+        Path file = Files.createTempFile("holidays", ".json");
+        try {
+            writeHolidays(file, "christmas");
+            HolidayFactory fromFile = HolidayFactory.fromFile(file.toString());
+            try (Closeable ignored = fromFile.watch()) {
+                writeHolidays(file, "christmas", "halloween");
+                for (int i = 0; i < 100 && !fromFile.isHolidayDefined("halloween"); i++) {
+                    Thread.sleep(100);
+                }
+                assertTrue( fromFile.isHolidayDefined("halloween") );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Writes a configuration file containing the specified holidays (copied from the defaults).
+     */
+    private void writeHolidays( Path file, String... holidayNames ) throws IOException
+    {
+        writeNamedHolidays(file, "File Holidays", holidayNames);
+    }
+
+    /**
+     * Writes a configuration file with the specified name containing the specified holidays.
+     */
+    private void writeNamedHolidays( Path file, String name, String... holidayNames ) throws IOException
+    {
+        JsonObject json = Json.parse(
+                new InputStreamReader(getClass().getClassLoader().getResourceAsStream("us_holidays_default.json"),
+                        StandardCharsets.UTF_8)).asObject();
+        JsonObject supported = Json.object();
+        for (String holidayName : holidayNames) {
+            supported.add(holidayName, json.get("supportedHolidays").asObject().get(holidayName));
+        }
+        JsonObject config = Json.object()
+                .add("name", name)
+                .add("version", "1.0")
+                .add("lastUpdated", "2016-04-16")
+                .add("locale", "US")
+                .add("supportedHolidays", supported);
+        Files.write(file, config.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void testDates()
+    {
+        assertEquals( LocalDate.of(2017, 11, 23), holidays.getHoliday("thanksgiving day").getDate(2017) );
+        assertEquals( LocalDate.of(2016, 11, 8), holidays.getHoliday("election day us").getDate(2016) );
+        assertEquals( LocalDate.of(2016, 3, 27), holidays.getHoliday("easter").getDate(2016) );
+        assertEquals( LocalDate.of(2016, 3, 25), holidays.getHoliday("good friday").getDate(2016) );
+        assertEquals( LocalDate.of(2016, 2, 9), holidays.getHoliday("mardi gras").getDate(2016) );
+        assertEquals( LocalDate.of(2016, 5, 30), holidays.getHoliday("memorial day").getDate(2016) );
+        assertEquals( LocalDate.of(2016, 4, 27),
+                holidays.getHoliday("administrative professionals day").getDate(2016) );
+    }
+
+    public void testObservedDates()
+    {
+        Holiday christmasObserved = holidays.getHoliday("christmas observed");
+        assertEquals( LocalDate.of(2016, 12, 26), christmasObserved.getDate(2016) );
+        assertEquals( LocalDate.of(2021, 12, 24), christmasObserved.getDate(2021) );
+        assertEquals( LocalDate.of(2017, 12, 25), christmasObserved.getDate(2017) );
+        assertEquals( LocalDate.of(2016, 12, 25), holidays.getHoliday("christmas").getDate(2016) );
+        assertEquals( LocalDate.of(2021, 12, 31), holidays.getHoliday("new years day observed").getDate(2022) );
+
+        List<Holiday> onDate = holidays.getHolidaysOn(LocalDate.of(2021, 12, 31));
+        assertEquals( 2, onDate.size() );
+        assertTrue( onDate.contains(holidays.getHoliday("new years day observed")) );
+        assertTrue( onDate.contains(holidays.getHoliday("new years eve")) );
+    }
+
+    public void testGetHolidaysOn()
+    {
+        List<Holiday> onDate = holidays.getHolidaysOn(LocalDate.of(2017, 11, 2));
+        assertEquals( 2, onDate.size() );
+        assertSame( holidays.getHoliday("all souls day"), onDate.get(0) );
+        assertSame( holidays.getHoliday("day of the dead"), onDate.get(1) );
+
+        assertEquals( Collections.singletonList(holidays.getHoliday("good friday")),
+                holidays.getHolidaysOn(LocalDate.of(2016, 3, 25)) );
+        assertTrue( holidays.getHolidaysOn(LocalDate.of(2016, 3, 24)).isEmpty() );
+    }
+
+    public void testPrecomputedYearsMatchRules()
+    {
+        HolidayFactory calculated = HolidayFactory.fromDefaults();
+        holidays.precomputeYears(1900, 2200);
+
+        for (Holiday holiday : holidays.getSupportedHolidays()) {
+            Holiday expected = calculated.getHoliday(holiday.getName());
+            for (int year = 1890; year <= 2210; year++) {
+                assertEquals( holiday.getName() + " " + year, expected.getEpochDay(year), holiday.getEpochDay(year) );
+            }
+        }
+    }
+
+    public void testParallelPrecomputeMatchesRules()
+    {
+        HolidayFactory calculated = HolidayFactory.fromDefaults();
+        holidays.precomputeYears(1583, 9999, ForkJoinPool.commonPool());
+
+        for (Holiday holiday : holidays.getSupportedHolidays()) {
+            Holiday expected = calculated.getHoliday(holiday.getName());
+            for (int year = 1583; year <= 9999; year += 7) {
+                assertEquals( holiday.getName() + " " + year, expected.getEpochDay(year), holiday.getEpochDay(year) );
+            }
+        }
+    }
+}
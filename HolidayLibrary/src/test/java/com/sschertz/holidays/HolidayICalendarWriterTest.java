@@ -0,0 +1,171 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link HolidayICalendarWriter}.
+ */
+public class HolidayICalendarWriterTest
+    extends TestCase
+{
+    public HolidayICalendarWriterTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayICalendarWriterTest.class );
+    }
+
+    public void testWritesEventsForEveryHoliday() throws IOException
+    {
+        HolidayFactory holidays = HolidayFactory.fromDefaults();
+        holidays.setClock(Clock.fixed(Instant.parse("2017-03-04T05:06:07Z"), ZoneOffset.UTC));
+        StringWriter out = new StringWriter();
+        holidays.writeICalendar(out, 2000, 2030);
+        String feed = out.toString();
+
+        assertTrue( feed.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n") );
+        assertTrue( feed.endsWith("END:VCALENDAR\r\n") );
+        assertTrue( feed.contains("DTSTAMP:20170304T050607Z\r\n") );
+
+        int expectedEvents = 0;
+        for (Holiday holiday : holidays.getSupportedHolidays()) {
+            expectedEvents += (holiday.getRecurrenceRule() == null) ? 31 : 1;
+        }
+        assertEquals( expectedEvents, feed.split("BEGIN:VEVENT\r\n", -1).length - 1 );
+        assertTrue( feed.contains("RRULE:FREQ=YEARLY;BYMONTH=11;BYDAY=4TH;UNTIL=20301231\r\n") );
+        assertTrue( feed.contains("RRULE:FREQ=YEARLY;BYMONTH=5;BYDAY=-1MO;UNTIL=20301231\r\n") );
+        assertTrue( feed.contains("DTSTART;VALUE=DATE:20170416\r\n") );
+    }
+
+    public void testRecurrenceRulesMatchHolidayRules()
+    {
+        int withRules = 0;
+        for (Holiday holiday : HolidayFactory.fromDefaults().getSupportedHolidays()) {
+            String recurrenceRule = holiday.getRecurrenceRule();
+            if (recurrenceRule == null) {
+                continue;
+            }
+            withRules++;
+            for (int year = 1900; year < 2100; year++) {
+                assertEquals( holiday.getName() + " " + year, holiday.getDate(year), expand(recurrenceRule, year) );
+            }
+        }
+        assertTrue( withRules > 0 );
+    }
+
+    public void testFoldsAndEscapesLongLines() throws IOException
+    {
+        String displayName = "A very long holiday name; with punctuation, éèê accents and 🎉 " +
+                "that will not fit on a single line of an iCalendar file";
+        String json = "{\"long\": {\"name\": \"long\", \"displayName\": \"" + displayName + "\"," +
+                " \"type\": \"easter\", \"rule\": {}}}";
+        HolidayFactory holidays = new HolidayFactory("Long", null, null, null,
+                new HolidayRegistry(Json.parse(json).asObject()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new HolidayICalendarWriter(Channels.newChannel(bytes)).write(holidays, 2017, 2017);
+        String feed = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+
+        for (String line : feed.split("\r\n")) {
+            assertTrue( line, line.getBytes(StandardCharsets.UTF_8).length <= 75 );
+            assertFalse( line, line.contains("\n") || line.contains("\r") );
+        }
+
+        String unfolded = feed.replace("\r\n ", "");
+        assertTrue( unfolded.contains("SUMMARY:" + displayName.replace(";", "\\;").replace(",", "\\,") + "\r\n") );
+    }
+
+    public void testLeapDayHolidays() throws IOException
+    {
+        String json = "{\"leap day\": {\"name\": \"leap day\", \"displayName\": \"Leap Day\"," +
+                " \"type\": \"static_date\", \"rule\": {\"month\": \"february\", \"day\": 29}}," +
+                " \"leap day observed\": {\"name\": \"leap day observed\", \"displayName\": \"Leap Day Observed\"," +
+                " \"type\": \"static_date\", \"rule\": {\"month\": \"february\", \"day\": 29, \"forceWeekday\": true}}}";
+        HolidayFactory holidays = new HolidayFactory("Leap", null, null, null,
+                new HolidayRegistry(Json.parse(json).asObject()));
+        Holiday leapDay = holidays.getHoliday("leap day");
+        assertEquals( "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29", leapDay.getRecurrenceRule() );
+        assertNull( holidays.getHoliday("leap day observed").getRecurrenceRule() );
+
+        StringWriter out = new StringWriter();
+        holidays.writeICalendar(out, 2017, 2025);
+        String feed = out.toString();
+        assertTrue( feed.endsWith("END:VCALENDAR\r\n") );
+
+        // The recurring event starts at the first leap day in the range
+        assertTrue( feed.contains("UID:leap-day@leap\r\nDTSTAMP:") );
+        assertTrue( feed.contains("DTSTART;VALUE=DATE:20200229\r\nDTEND;VALUE=DATE:20200301\r\n" +
+                "RRULE:FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29;UNTIL=20251231\r\n") );
+
+        // The observed holiday has an event in each leap year only: 2020-02-28 and 2024-02-29
+        assertEquals( 3, feed.split("BEGIN:VEVENT\r\n", -1).length - 1 );
+        assertTrue( feed.contains("UID:leap-day-observed-2020@leap\r\n") );
+        assertTrue( feed.contains("DTSTART;VALUE=DATE:20200228\r\n") );
+        assertTrue( feed.contains("UID:leap-day-observed-2024@leap\r\n") );
+        assertTrue( feed.contains("DTSTART;VALUE=DATE:20240229\r\n") );
+
+        // A range without a leap year has no events at all
+        out = new StringWriter();
+        holidays.writeICalendar(out, 2021, 2023);
+        assertFalse( out.toString().contains("BEGIN:VEVENT") );
+    }
+
+    public void testRejectsInvalidRange() throws IOException
+    {
+        try {
+            HolidayFactory.fromDefaults().writeICalendar(new StringWriter(), 2020, 2019);
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Expands a yearly recurrence rule for a single year, using only the parts the holiday rules generate.
+     */
+    private static LocalDate expand( String recurrenceRule, int year )
+    {
+        Map<String, String> parts = new HashMap<>();
+        for (String part : recurrenceRule.split(";")) {
+            String[] keyValue = part.split("=");
+            parts.put(keyValue[0], keyValue[1]);
+        }
+        assertEquals( "YEARLY", parts.get("FREQ") );
+
+        LocalDate firstOfMonth = LocalDate.of(year, Integer.parseInt(parts.get("BYMONTH")), 1);
+        if (parts.containsKey("BYMONTHDAY")) {
+            return firstOfMonth.withDayOfMonth(Integer.parseInt(parts.get("BYMONTHDAY")));
+        }
+
+        String byDay = parts.get("BYDAY");
+        String code = byDay.substring(byDay.length() - 2);
+        DayOfWeek dayOfWeek = null;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().startsWith(code)) {
+                dayOfWeek = day;
+            }
+        }
+        int ordinal = Integer.parseInt(byDay.substring(0, byDay.length() - 2));
+        return firstOfMonth.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+    }
+}
@@ -0,0 +1,135 @@
+package com.sschertz.holidays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link HolidayMetrics}.
+ */
+public class HolidayMetricsTest
+    extends TestCase
+{
+    public HolidayMetricsTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayMetricsTest.class );
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        HolidayFactory.setListener(HolidayListener.NONE);
+    }
+
+    public void testRecordsEvents()
+    {
+        HolidayMetrics metrics = new HolidayMetrics();
+        HolidayFactory.setListener(metrics);
+
+        HolidayFactory holidays = HolidayFactory.fromDefaults();
+        assertEquals( 1, metrics.getFactoryLoadCount() );
+
+        assertNotNull( holidays.getHoliday("thanksgiving day") );
+        assertNull( holidays.getHoliday("no such holiday") );
+        assertEquals( 2, metrics.getHolidayLookupCount() );
+        assertEquals( 1, metrics.getHolidayLookupMissCount() );
+        assertTrue( metrics.getHolidayLookupP99Nanos() >= metrics.getHolidayLookupP50Nanos() );
+
+        holidays.getHoliday("easter").getDate(2017);
+        holidays.getHoliday("thanksgiving day").getDate(2017);
+        holidays.getHoliday("thanksgiving day").getDate(2018);
+        Map<String, Long> counts = metrics.getDateCalculationCounts();
+        assertEquals( Long.valueOf(1), counts.get("EASTER") );
+        assertEquals( Long.valueOf(2), counts.get("WEEK_IN_MONTH") );
+
+        // Precomputed dates are not calculated
+        holidays.precomputeYears(2017, 2018);
+        holidays.getHoliday("easter").getDate(2017);
+        assertEquals( Long.valueOf(1), metrics.getDateCalculationCounts().get("EASTER") );
+
+        HolidayFactoryCache cache = new HolidayFactoryCache(2);
+        cache.get("test_holidays.json");
+        cache.get("test_holidays.json");
+        assertEquals( 1, metrics.getCacheHitCount() );
+        assertEquals( 1, metrics.getCacheMissCount() );
+        assertEquals( 2, metrics.getFactoryLoadCount() );
+    }
+
+    public void testRecordsBulkCalculations()
+    {
+        HolidayFactory holidays = HolidayFactory.fromDefaults();
+        int holidayCount = holidays.getRegistry().size();
+        HolidayMetrics metrics = new HolidayMetrics();
+        HolidayFactory.setListener(metrics);
+
+        holidays.precomputeYears(2000, 2009);
+        assertEquals( 10L * holidayCount, metrics.getBulkDateCalculationCount() );
+
+        // The index for a year that is not precomputed evaluates the year and the years on either side
+        assertTrue( holidays.getCalendar().isHoliday(LocalDate.of(1990, 12, 25)) );
+        assertEquals( 1, metrics.getYearIndexBuildCount() );
+        assertEquals( 13L * holidayCount, metrics.getBulkDateCalculationCount() );
+
+        // A year that is precomputed is read from the table, and a year that is indexed is not rebuilt
+        assertTrue( holidays.getCalendar().isHoliday(LocalDate.of(2005, 12, 25)) );
+        assertFalse( holidays.getCalendar().isHoliday(LocalDate.of(1990, 12, 26)) );
+        assertEquals( 2, metrics.getYearIndexBuildCount() );
+        assertEquals( 13L * holidayCount, metrics.getBulkDateCalculationCount() );
+
+        assertEquals( 0, metrics.getHolidayLookupCount() );
+        for (long count : metrics.getDateCalculationCounts().values()) {
+            assertEquals( 0, count );
+        }
+    }
+
+    public void testNoListenerByDefault()
+    {
+        assertSame( HolidayListener.NONE, HolidayFactory.getListener() );
+        HolidayMetrics metrics = new HolidayMetrics();
+        HolidayFactory.fromDefaults().getHoliday("easter").getDate(2017);
+        assertEquals( 0, metrics.getHolidayLookupCount() );
+    }
+
+    public void testRegistersMBean() throws Exception
+    {
+        HolidayMetrics metrics = new HolidayMetrics();
+        HolidayFactory.setListener(metrics);
+        HolidayFactory.fromTest().getHoliday("easter");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.registerMBean();
+        try {
+            assertEquals( 1L, server.getAttribute(name, "FactoryLoadCount") );
+            assertEquals( 1L, server.getAttribute(name, "HolidayLookupCount") );
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    public void testHistogramPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals( 0, histogram.getPercentile(50) );
+
+        for (int i = 0; i < 98; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        histogram.record(0);
+        assertEquals( 100, histogram.getCount() );
+        assertEquals( 127, histogram.getPercentile(50) );
+        assertEquals( 127, histogram.getPercentile(99) );
+        assertEquals( 8191, histogram.getPercentile(100) );
+    }
+}
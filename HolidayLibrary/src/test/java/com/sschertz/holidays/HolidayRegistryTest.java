@@ -0,0 +1,120 @@
+package com.sschertz.holidays;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonObject;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link HolidayRegistry}.
+ */
+public class HolidayRegistryTest
+    extends TestCase
+{
+    public HolidayRegistryTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayRegistryTest.class );
+    }
+
+    public void testSortByDependency()
+    {
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        dependencies.put("a", "b");
+        dependencies.put("b", "c");
+        dependencies.put("c", null);
+        dependencies.put("d", null);
+        dependencies.put("e", "a");
+
+        assertEquals( Arrays.asList("c", "b", "a", "d", "e"), HolidayRegistry.sortByDependency(dependencies) );
+    }
+
+    public void testRejectsCycles()
+    {
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        dependencies.put("a", "a");
+        assertInvalid( dependencies );
+
+        dependencies.clear();
+        dependencies.put("a", null);
+        dependencies.put("b", "c");
+        dependencies.put("c", "d");
+        dependencies.put("d", "b");
+        assertInvalid( dependencies );
+    }
+
+    public void testRejectsUndefinedDependency()
+    {
+        Map<String, String> dependencies = new LinkedHashMap<>();
+        dependencies.put("a", "b");
+        assertInvalid( dependencies );
+    }
+
+    public void testDerivedHolidayDefinedBeforeBase()
+    {
+        JsonObject json = Json.object()
+                .add("maundy thursday", daysBefore("maundy thursday", "good friday", 1))
+                .add("good friday", daysBefore("good friday", "easter", 2))
+                .add("easter", Json.object()
+                        .add("name", "easter")
+                        .add("displayName", "Easter")
+                        .add("type", "easter")
+                        .add("rule", Json.object()));
+        HolidayRegistry registry = new HolidayRegistry(json);
+
+        Holiday easter = registry.get("easter");
+        Holiday goodFriday = registry.get("good friday");
+        Holiday maundyThursday = registry.get("maundy thursday");
+        assertTrue( easter.getOrdinal() < goodFriday.getOrdinal() );
+        assertTrue( goodFriday.getOrdinal() < maundyThursday.getOrdinal() );
+        assertEquals( LocalDate.of(2017, 4, 13), maundyThursday.getDate(2017) );
+
+        long[] row = new long[registry.size()];
+        registry.evaluateYear(2017, row);
+        assertEquals( LocalDate.of(2017, 4, 13).toEpochDay(), row[maundyThursday.getOrdinal()] );
+
+        registry.precomputeYears(2000, 2030);
+        registry.evaluateYear(2017, row);
+        assertEquals( LocalDate.of(2017, 4, 14).toEpochDay(), row[goodFriday.getOrdinal()] );
+    }
+
+    public void testRejectsSelfReferencingDefinition()
+    {
+        JsonObject json = Json.object().add("loop", daysBefore("loop", "loop", 1));
+        try {
+            new HolidayRegistry(json);
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static JsonObject daysBefore( String name, String holiday, int days )
+    {
+        return Json.object()
+                .add("name", name)
+                .add("displayName", name)
+                .add("type", "days_before_holiday")
+                .add("rule", Json.object().add("holiday", holiday).add("daysBefore", days));
+    }
+
+    private static void assertInvalid( Map<String, String> dependencies )
+    {
+        try {
+            HolidayRegistry.sortByDependency(dependencies);
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
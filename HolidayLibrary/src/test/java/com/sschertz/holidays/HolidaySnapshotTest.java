@@ -0,0 +1,175 @@
+package com.sschertz.holidays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Unit tests for {@link HolidaySnapshot}.
+ */
+public class HolidaySnapshotTest
+    extends TestCase
+{
+    public HolidaySnapshotTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidaySnapshotTest.class );
+    }
+
+    public void testRoundTrip() throws IOException
+    {
+        for (HolidayFactory original : new HolidayFactory[] { HolidayFactory.fromDefaults(), HolidayFactory.fromTest() }) {
+            HolidayFactory loaded = HolidayFactory.fromSnapshot(ByteBuffer.wrap(snapshot(original)));
+            assertSameHolidays( original, loaded );
+            assertNull( loaded.getRegistry().getYearTable() );
+        }
+    }
+
+    public void testRoundTripWithYearTable() throws IOException
+    {
+        HolidayFactory original = HolidayFactory.fromDefaults();
+        original.precomputeYears(1990, 2050);
+
+        Path file = Files.createTempFile("holidays", ".bin");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                original.writeSnapshot(out);
+            }
+            HolidayFactory loaded = HolidayFactory.fromSnapshot(file);
+            assertSameHolidays( original, loaded );
+
+            HolidayYearTable table = loaded.getRegistry().getYearTable();
+            assertEquals( 1990, table.getFirstYear() );
+            assertEquals( 2050, table.getLastYear() );
+            assertTrue( table.isMapped() );
+
+            // Replacing the file does not disturb a factory that has mapped it
+            HolidayFactory.fromTest().writeSnapshot(file);
+            assertSameHolidays( original, loaded );
+            for (long epochDay = LocalDate.of(1990, 1, 1).toEpochDay(); epochDay < LocalDate.of(2051, 1, 1).toEpochDay(); epochDay++) {
+                assertEquals( original.getCalendar().isHoliday(epochDay), loaded.getCalendar().isHoliday(epochDay) );
+            }
+            assertEquals( "Test Holidays", HolidayFactory.fromSnapshot(file).getName() );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testYearTableCopiedFromBuffer() throws IOException
+    {
+        HolidayFactory original = HolidayFactory.fromDefaults();
+        original.precomputeYears(2000, 2030);
+
+        // Start the snapshot at an odd offset, so the year table is not aligned within the array
+        byte[] bytes = snapshot(original);
+        byte[] shifted = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, shifted, 3, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(shifted);
+        buffer.position(3);
+
+        HolidayFactory loaded = HolidayFactory.fromSnapshot(buffer);
+        assertEquals( shifted.length, buffer.position() );
+        assertFalse( loaded.getRegistry().getYearTable().isMapped() );
+
+        Arrays.fill(shifted, (byte) 0);
+        assertSameHolidays( original, loaded );
+    }
+
+    public void testYearTableWithLeapDay() throws IOException
+    {
+        HolidayFactory original = HolidayCalendarTest.leapDayHolidays();
+        original.precomputeYears(2019, 2025);
+
+        Path file = Files.createTempFile("holidays", ".bin");
+        try {
+            original.writeSnapshot(file);
+
+            // Both the table read in place and the table copied to the heap keep the missing dates
+            for (HolidayFactory loaded : new HolidayFactory[] {
+                    HolidayFactory.fromSnapshot(file), HolidayFactory.fromSnapshot(ByteBuffer.wrap(snapshot(original))) }) {
+                HolidayYearTable table = loaded.getRegistry().getYearTable();
+                int ordinal = loaded.getHoliday("leap day").getOrdinal();
+                assertEquals( Holiday.NO_DATE, table.getEpochDay(2021, ordinal) );
+                assertEquals( LocalDate.of(2020, 2, 29).toEpochDay(), table.getEpochDay(2020, ordinal) );
+                assertEquals( Holiday.NO_DATE, table.getEpochDay(2023, loaded.getHoliday("leap day eve").getOrdinal()) );
+                assertEquals( Arrays.asList(loaded.getHoliday("christmas")), loaded.getCalendar().getHolidays(2021) );
+                assertTrue( loaded.getCalendar().isHoliday(LocalDate.of(2024, 2, 29)) );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testRejectsInvalidSnapshot() throws IOException
+    {
+        try {
+            HolidayFactory.fromSnapshot(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6 }));
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        byte[] bytes = snapshot(HolidayFactory.fromDefaults());
+        try {
+            HolidayFactory.fromSnapshot(ByteBuffer.wrap(bytes, 0, bytes.length / 2));
+            fail( "Expected IllegalArgumentException" );
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testRejectsYearTableOutsideIntRange() throws IOException
+    {
+        // Epoch day 2^31 falls in the year 5881580
+        HolidayFactory holidays = HolidayFactory.fromTest();
+        holidays.precomputeYears(5881575, 5881585);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            holidays.writeSnapshot(out);
+            fail( "Expected IOException" );
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals( 0, out.size() );
+    }
+
+    private static byte[] snapshot( HolidayFactory holidays ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        holidays.writeSnapshot(out);
+        return out.toByteArray();
+    }
+
+    private static void assertSameHolidays( HolidayFactory expected, HolidayFactory actual )
+    {
+        assertEquals( expected.getName(), actual.getName() );
+        assertEquals( expected.getLocale(), actual.getLocale() );
+        assertEquals( expected.toString(), actual.toString() );
+        assertEquals( expected.getRegistry().asMap().keySet(), actual.getRegistry().asMap().keySet() );
+
+        Iterator<Holiday> actualHolidays = actual.getRegistry().values().iterator();
+        for (Holiday holiday : expected.getRegistry().values()) {
+            Holiday loaded = actualHolidays.next();
+            assertEquals( holiday.getName(), loaded.getName() );
+            assertEquals( holiday.getType(), loaded.getType() );
+            assertEquals( holiday.toString(), loaded.toString() );
+            for (int year = 1900; year < 2100; year++) {
+                assertEquals( holiday.getName() + " " + year, holiday.getEpochDay(year), loaded.getEpochDay(year) );
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.sschertz.holidaysample;
+
+import com.sschertz.holidays.HolidayFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link HolidayServer} with a fixed number of client threads, each sending requests one
+ * after another for a fixed time, and reports the throughput and the p50/p99 latency. Use it to see
+ * how many requests a server with a given number of threads can handle.
+ * <p>
+ * The requests cycle through a mix of every endpoint. Latencies are measured on the client, so they
+ * include the HTTP round trip over the loopback interface.
+ */
+public class HolidayLoadGenerator {
+
+    private static final String[] REQUESTS = {
+            "/holidays/thanksgiving%20day?year=2017",
+            "/holidays/easter?year=2030",
+            "/date/2017-12-25",
+            "/date/2017-06-01",
+            "/next?count=5&date=2017-06-01",
+            "/next?count=20&date=2024-01-01",
+            "/range?start=2017-01-01&end=2017-12-31",
+    };
+
+    private final String baseUrl;
+
+    /**
+     * @param port the port the server is listening on, on this machine.
+     */
+    public HolidayLoadGenerator(int port) {
+        this.baseUrl = "http://127.0.0.1:" + port;
+    }
+
+    /**
+     * Sends requests from {@code clients} threads for {@code millis} milliseconds.
+     *
+     * @param clients the number of client threads.
+     * @param millis  how long to send requests for.
+     * @return the results of the run.
+     * @throws Exception if a client thread fails.
+     */
+    public Result run(int clients, long millis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            long start = System.nanoTime();
+            long end = start + TimeUnit.MILLISECONDS.toNanos(millis);
+
+            List<Future<Client>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client(i, end);
+                futures.add(executor.submit(client, client));
+            }
+
+            long[] latencies = new long[0];
+            int count = 0;
+            long errors = 0;
+            for (Future<Client> future : futures) {
+                Client client = future.get();
+                latencies = Arrays.copyOf(latencies, count + client.count);
+                System.arraycopy(client.latencies, 0, latencies, count, client.count);
+                count += client.count;
+                errors += client.errors;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new Result(count, errors, elapsed, percentile(latencies, 50), percentile(latencies, 99));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percentile / 100) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    /**
+     * One client thread. Each client records its own latencies, so the threads never contend while
+     * the test is running.
+     */
+    private final class Client implements Runnable {
+
+        private final int offset;
+        private final long endNanos;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        Client(int offset, long endNanos) {
+            this.offset = offset;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[8192];
+            for (int i = offset; System.nanoTime() < endNanos; i++) {
+                long start = System.nanoTime();
+                boolean ok = send(REQUESTS[i % REQUESTS.length], buffer);
+                long latency = System.nanoTime() - start;
+
+                if (!ok) {
+                    errors++;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+            }
+        }
+
+        private boolean send(String request, byte[] buffer) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + request).openConnection();
+                int status = connection.getResponseCode();
+                // Read the whole body so the connection can be kept alive for the next request
+                try (InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+                    while (in != null && in.read(buffer) != -1) {
+                        // discard
+                    }
+                }
+                return status == 200;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The results of a load test. Latencies are in nanoseconds.
+     */
+    public static final class Result {
+
+        private final long requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+
+        Result(long requests, long errors, long elapsedNanos, long p50Nanos, long p99Nanos) {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        /**
+         * Returns the number of requests completed per second.
+         */
+        public double getThroughput() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors) in %.1f s: %.0f requests/s, p50 %.1f us, p99 %.1f us",
+                    requests, errors, elapsedNanos / 1e9, getThroughput(), p50Nanos / 1e3, p99Nanos / 1e3);
+        }
+    }
+
+    /**
+     * Starts a {@link HolidayServer} for the default holidays on a free port and drives it.
+     * <p>
+     * Arguments: the number of server threads (the number of processors by default), the number of
+     * client threads (twice the number of server threads by default), and the number of seconds to
+     * run for (10 by default). A one second warm-up run is made first and not reported.
+     *
+     * @param args the command line arguments.
+     * @throws Exception if the test cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        int serverThreads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int clients = (args.length > 1) ? Integer.parseInt(args[1]) : serverThreads * 2;
+        int seconds = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+
+        HolidayServer.enableNoDelay();
+        HolidayServer server = new HolidayServer(HolidayFactory.fromDefaults(),
+                new InetSocketAddress("127.0.0.1", 0), serverThreads);
+        server.start();
+        try {
+            HolidayLoadGenerator generator = new HolidayLoadGenerator(server.getPort());
+            generator.run(clients, 1000);
+
+            System.out.println("Server threads: " + serverThreads + ", client threads: " + clients);
+            System.out.println(generator.run(clients, TimeUnit.SECONDS.toMillis(seconds)));
+        } finally {
+            server.stop();
+        }
+    }
+}
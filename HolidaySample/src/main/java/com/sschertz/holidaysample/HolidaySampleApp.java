@@ -2,18 +2,32 @@ package com.sschertz.holidaysample;
 
 import com.sschertz.holidays.Holiday;
 import com.sschertz.holidays.HolidayFactory;
+import com.sschertz.holidays.HolidayOccurrence;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.List;
 
 public class HolidaySampleApp {
 
     /**
      * Simple test app to demonstrate calculating various holidays using HolidayLibrary.
+     * <p>
+     * Run with {@code serve [port] [threads]} to start a {@link HolidayServer} instead, or with
+     * {@code load [serverThreads] [clientThreads] [seconds]} to run the {@link HolidayLoadGenerator}.
      */
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+
+        if (args.length > 0 && args[0].equals("serve")) {
+            HolidayServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("load")) {
+            HolidayLoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
         // Get a HolidayFactory using the default holidays
         HolidayFactory holidays = HolidayFactory.fromDefaults();
@@ -80,6 +94,14 @@ public class HolidaySampleApp {
 
         System.out.println();
 
+        System.out.println("The next 5 holidays...");
+        // Get the next few holidays across all the holidays the factory can handle
+        for (HolidayOccurrence occurrence : holidays.getNextOccurrences(zoneId, 5)) {
+            System.out.println(occurrence);
+        }
+
+        System.out.println();
+
         System.out.println("Output all the default holidays...");
         // Get a list of all the holidays the factory can handle
         List<Holiday> allHolidays = holidays.getSupportedHolidays();
@@ -0,0 +1,268 @@
+package com.sschertz.holidaysample;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.sschertz.holidays.Holiday;
+import com.sschertz.holidays.HolidayFactory;
+import com.sschertz.holidays.HolidayOccurrence;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A small HTTP server that answers holiday queries from a single shared {@link HolidayFactory}.
+ * <p>
+ * Endpoints (all {@code GET}, all returning JSON):
+ * <ul>
+ * <li>{@code /holidays/{name}?year=2017} - a holiday and its date in a year (the current year by default)</li>
+ * <li>{@code /date/2017-12-25} - the holidays that fall on a date</li>
+ * <li>{@code /range?start=2017-01-01&end=2017-12-31} - every occurrence between two dates (inclusive)</li>
+ * <li>{@code /next?count=5&date=2017-06-01} - the next occurrences on or after a date (today by default)</li>
+ * </ul>
+ * Requests are handled by a fixed pool of threads. The {@code HolidayFactory} is thread-safe, so every
+ * thread shares the same compiled holidays.
+ * <p>
+ * The JDK server writes the response headers and body separately. Without {@code TCP_NODELAY}, Nagle's
+ * algorithm holds back the body until the client acknowledges the headers, which adds tens of
+ * milliseconds to every keep-alive request. {@link #main(String[])} turns it on with the JVM-wide
+ * {@code sun.net.httpserver.nodelay} system property (see {@link #enableNoDelay()}); programs that create
+ * a server themselves should set the property, or call that method, before creating the first server.
+ */
+public class HolidayServer {
+
+    // Largest number of occurrences /next returns, so one request cannot ask for an unbounded list
+    private static final int MAX_COUNT = 1000;
+
+    private final HolidayFactory holidays;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for {@code holidays}. Call {@link #start()} to start accepting requests.
+     *
+     * @param holidays the holidays to serve.
+     * @param address  the address to listen on. Use port 0 to pick a free port.
+     * @param threads  the number of threads handling requests.
+     * @throws IOException if the server cannot listen on {@code address}.
+     */
+    public HolidayServer(HolidayFactory holidays, InetSocketAddress address, int threads) throws IOException {
+        this.holidays = holidays;
+        server = HttpServer.create(address, 0);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "HolidayServer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+
+        server.createContext("/holidays/", handler(this::getHoliday));
+        server.createContext("/date/", handler(this::getHolidaysOn));
+        server.createContext("/range", handler(this::getRange));
+        server.createContext("/next", handler(this::getNext));
+    }
+
+    /**
+     * Sets the {@code sun.net.httpserver.nodelay} system property to {@code true}, unless it has already
+     * been set. The JDK reads the property once, when the first server is created, so this has no effect
+     * after that.
+     */
+    public static void enableNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for requests in progress, and stops the threads.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private JsonValue getHoliday(String path, Map<String, String> query) {
+        Holiday holiday = holidays.getHoliday(path);
+        if (holiday == null) {
+            throw new NotFoundException("Holiday not found: " + path);
+        }
+        int year = query.containsKey("year") ? Integer.parseInt(query.get("year")) : LocalDate.now(holidays.getClock()).getYear();
+        return toJson(holiday).add("date", holiday.getDate(year).toString());
+    }
+
+    private JsonValue getHolidaysOn(String path, Map<String, String> query) {
+        JsonArray result = new JsonArray();
+        for (Holiday holiday : holidays.getHolidaysOn(LocalDate.parse(path))) {
+            result.add(toJson(holiday));
+        }
+        return result;
+    }
+
+    private JsonValue getRange(String path, Map<String, String> query) {
+        LocalDate start = LocalDate.parse(required(query, "start"));
+        LocalDate end = LocalDate.parse(required(query, "end"));
+        if (end.isAfter(start.plusYears(100))) {
+            throw new IllegalArgumentException("Range is longer than 100 years");
+        }
+        return toJson(holidays.getOccurrences(start, end).collect(Collectors.toList()));
+    }
+
+    private JsonValue getNext(String path, Map<String, String> query) {
+        int count = query.containsKey("count") ? Integer.parseInt(query.get("count")) : 1;
+        if (count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must not be more than " + MAX_COUNT);
+        }
+        LocalDate date = query.containsKey("date") ? LocalDate.parse(query.get("date")) : LocalDate.now(holidays.getClock());
+        return toJson(holidays.getNextOccurrences(date, count));
+    }
+
+    private static JsonObject toJson(Holiday holiday) {
+        return new JsonObject()
+                .add("name", holiday.getName())
+                .add("displayName", holiday.getDisplayName());
+    }
+
+    private static JsonArray toJson(List<HolidayOccurrence> occurrences) {
+        JsonArray result = new JsonArray();
+        for (HolidayOccurrence occurrence : occurrences) {
+            result.add(toJson(occurrence.getHoliday()).add("date", occurrence.getDate().toString()));
+        }
+        return result;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /**
+     * A query against the holidays. {@code path} is the part of the request path after the context
+     * path, already decoded.
+     */
+    private interface Query {
+        JsonValue run(String path, Map<String, String> query);
+    }
+
+    private static HttpHandler handler(Query query) {
+        return exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    send(exchange, 405, error("Method not allowed"));
+                    return;
+                }
+                String contextPath = exchange.getHttpContext().getPath();
+                String path = decode(exchange.getRequestURI().getRawPath().substring(contextPath.length()));
+                send(exchange, 200, query.run(path, parseQuery(exchange.getRequestURI().getRawQuery())));
+            } catch (NotFoundException e) {
+                send(exchange, 404, error(e.getMessage()));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                // NumberFormatException is an IllegalArgumentException
+                send(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                send(exchange, 500, error(e.toString()));
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private static JsonValue error(String message) {
+        return new JsonObject().add("error", String.valueOf(message));
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonValue body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(decode(parameter.substring(0, equals)), decode(parameter.substring(equals + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class NotFoundException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Runs a server for the default holidays.
+     * <p>
+     * Arguments: the port (8080 by default) and the number of threads (the number of processors by default).
+     *
+     * @param args the command line arguments.
+     * @throws IOException if the server cannot be started.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        enableNoDelay();
+        HolidayServer server = new HolidayServer(HolidayFactory.fromDefaults(), new InetSocketAddress(port), threads);
+        server.start();
+        System.out.println("Serving holidays on http://localhost:" + server.getPort() + "/ with " + threads + " threads");
+    }
+}
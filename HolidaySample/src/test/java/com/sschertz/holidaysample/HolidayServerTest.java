@@ -0,0 +1,90 @@
+package com.sschertz.holidaysample;
+
+import com.eclipsesource.json.Json;
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.sschertz.holidays.HolidayFactory;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for {@link HolidayServer} and {@link HolidayLoadGenerator}.
+ */
+public class HolidayServerTest
+    extends TestCase
+{
+    private HolidayServer server;
+
+    public HolidayServerTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( HolidayServerTest.class );
+    }
+
+    @Override
+    protected void setUp() throws IOException
+    {
+        HolidayServer.enableNoDelay();
+        server = new HolidayServer(HolidayFactory.fromDefaults(), new InetSocketAddress("127.0.0.1", 0), 2);
+        server.start();
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        server.stop();
+    }
+
+    public void testEndpoints() throws IOException
+    {
+        JsonObject thanksgiving = get("/holidays/thanksgiving%20day?year=2017", 200).asObject();
+        assertEquals( "2017-11-23", thanksgiving.getString("date", null) );
+
+        JsonArray christmas = get("/date/2017-12-25", 200).asArray();
+        assertEquals( "christmas", christmas.get(0).asObject().getString("name", null) );
+
+        JsonArray next = get("/next?count=3&date=2017-12-24", 200).asArray();
+        assertEquals( 3, next.size() );
+        assertEquals( "2017-12-24", next.get(0).asObject().getString("date", null) );
+
+        JsonArray range = get("/range?start=2017-07-01&end=2017-07-31", 200).asArray();
+        assertEquals( "2017-07-04", range.get(0).asObject().getString("date", null) );
+
+        get("/holidays/no%20such%20holiday", 404);
+        get("/date/not-a-date", 400);
+        get("/range?start=2017-01-01", 400);
+    }
+
+    public void testLoadGenerator() throws Exception
+    {
+        HolidayLoadGenerator.Result result = new HolidayLoadGenerator(server.getPort()).run(2, 300);
+        assertTrue( result.getRequests() > 0 );
+        assertEquals( 0, result.getErrors() );
+        assertTrue( result.getP99Nanos() >= result.getP50Nanos() );
+    }
+
+    private JsonValue get( String path, int expectedStatus ) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        assertEquals( path, expectedStatus, connection.getResponseCode() );
+        try (InputStream in = (expectedStatus < 400) ? connection.getInputStream() : connection.getErrorStream();
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Json.parse(reader);
+        }
+    }
+}